@@ -0,0 +1,13 @@
+package com.areeba.challenge.customer.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class CustomerReactiveApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(CustomerReactiveApplication.class, args);
+	}
+
+}
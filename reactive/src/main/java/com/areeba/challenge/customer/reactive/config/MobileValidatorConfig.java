@@ -0,0 +1,49 @@
+package com.areeba.challenge.customer.reactive.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import io.netty.channel.ChannelOption;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Configuration of the non-blocking client used to call the mobile validator API
+ * 
+ * @author Hussein Zaraket
+ */
+@Configuration
+public class MobileValidatorConfig {
+
+	// maximum number of pooled connections to the mobile validator
+	@Value("${mobileValidator.http.maxConnections:100}")
+	private int maxConnections;
+
+	// maximum time to wait for establishing a connection to the mobile validator
+	@Value("${mobileValidator.http.connectTimeout:2s}")
+	private Duration connectTimeout;
+
+	// maximum time to wait for the response of the mobile validator
+	@Value("${mobileValidator.http.readTimeout:5s}")
+	private Duration readTimeout;
+
+	/**
+	 * WebClient used to call the mobile validator on a pooled reactor netty client
+	 * @param builder
+	 * @return
+	 */
+	@Bean
+	public WebClient mobileValidatorWebClient(WebClient.Builder builder) {
+		HttpClient httpClient = HttpClient
+				.create(ConnectionProvider.builder("mobileValidator").maxConnections(maxConnections).build())
+				.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+				.responseTimeout(readTimeout);
+		return builder.clientConnector(new ReactorClientHttpConnector(httpClient)).build();
+	}
+
+}
@@ -0,0 +1,130 @@
+package com.areeba.challenge.customer.reactive.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.areeba.challenge.customer.reactive.dto.CustomerPage;
+import com.areeba.challenge.customer.reactive.model.Customer;
+import com.areeba.challenge.customer.reactive.service.ReactiveCustomerService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Controller that expose the same CRUD operations APIs as customer-ms without blocking any thread
+ * 
+ * @author Hussein Zaraket
+ */
+@CrossOrigin
+@RestController
+@RequestMapping("/api/customer-service")
+public class ReactiveCustomerController {
+
+	// Inject the needed service to use it below
+	@Autowired
+	private ReactiveCustomerService customerService;
+
+	/**
+	 * API that return all the customers in the database, streamed while being read
+	 * (as newline delimited json when application/x-ndjson is accepted)
+	 * @return
+	 */
+	@GetMapping("/customers")
+	public Flux<Customer> getAllCustomers() {
+		return customerService.getAllCustomers();
+	}
+
+	/**
+	 * API that return one page of customers ordered by id, the nextCursor of the response should be passed as after
+	 * parameter to get the next page
+	 * @param after
+	 * @param limit
+	 * @return
+	 */
+	@GetMapping("/customers/page")
+	public Mono<ResponseEntity<CustomerPage>> getCustomersPage(@RequestParam(name = "after", required = false) Long after,
+			@RequestParam(name = "limit", required = false) Integer limit) {
+		return customerService.getCustomersPage(after, limit).map(page -> new ResponseEntity<>(page, HttpStatus.OK));
+	}
+
+	/**
+	 * API that return specific customer by it's id
+	 * @param id
+	 * @return
+	 */
+	@GetMapping("/customers/{id}")
+	public Mono<ResponseEntity<Customer>> getCustomerById(@PathVariable("id") Long id) {
+		return customerService.getCustomerById(id).map(customer -> new ResponseEntity<>(customer, HttpStatus.OK));
+	}
+
+	/**
+	 * API that return the customer having the passed mobile number
+	 * @param mobileNumber
+	 * @return
+	 */
+	@GetMapping("/customers/search/mobile")
+	public Mono<ResponseEntity<Customer>> getCustomerByMobileNumber(@RequestParam("mobileNumber") String mobileNumber) {
+		return customerService.getCustomerByMobileNumber(mobileNumber).map(customer -> new ResponseEntity<>(customer, HttpStatus.OK));
+	}
+
+	/**
+	 * API that return a page of the customers having a name starting with the passed prefix, 204 in case there is none
+	 * @param prefix
+	 * @param page
+	 * @param size
+	 * @return
+	 */
+	@GetMapping("/customers/search/name")
+	public Mono<ResponseEntity<List<Customer>>> searchCustomersByName(@RequestParam("prefix") String prefix,
+			@RequestParam(name = "page", required = false) Integer page,
+			@RequestParam(name = "size", required = false) Integer size) {
+		return customerService.searchCustomersByName(prefix, page, size).collectList()
+				.map(customers -> customers.isEmpty() ? new ResponseEntity<List<Customer>>(HttpStatus.NO_CONTENT)
+						: new ResponseEntity<List<Customer>>(customers, HttpStatus.OK));
+	}
+
+	/**
+	 * API that create new customer and return it after creation
+	 * @param customer
+	 * @return
+	 */
+	@PostMapping("/customers")
+	public Mono<ResponseEntity<Customer>> createCustomer(@RequestBody Customer customer) {
+		return customerService.createCustomer(customer).map(newCustomer -> new ResponseEntity<>(newCustomer, HttpStatus.CREATED));
+	}
+
+	/**
+	 * API that update a specific customer
+	 * @param id
+	 * @param customer
+	 * @return
+	 */
+	@PutMapping("/customers/{id}")
+	public Mono<ResponseEntity<Customer>> updateCustomer(@PathVariable("id") Long id, @RequestBody Customer customer) {
+		return customerService.updateCustomer(id, customer).map(retrievedCust -> new ResponseEntity<>(retrievedCust, HttpStatus.OK));
+	}
+
+	/**
+	 * API that delete a specific customer
+	 * @param id
+	 * @return
+	 */
+	@DeleteMapping("/customers/{id}")
+	public Mono<ResponseEntity<HttpStatus>> deleteCustomer(@PathVariable("id") Long id) {
+		return customerService.deleteCustomer(id).then(Mono.just(new ResponseEntity<>(HttpStatus.NO_CONTENT)));
+	}
+
+}
@@ -0,0 +1,55 @@
+package com.areeba.challenge.customer.reactive.dto;
+
+import java.util.List;
+
+import com.areeba.challenge.customer.reactive.model.Customer;
+
+/**
+ * One page of customers returned by the keyset paginated API, with the cursor to be passed as "after" to get the next page
+ * 
+ * @author Hussein Zaraket
+ */
+public class CustomerPage {
+
+	// customers of the current page ordered by id
+	private List<Customer> content;
+	// id of the last customer in the page, null when there is no more pages
+	private Long nextCursor;
+	// maximum number of customers requested per page
+	private int limit;
+
+	public CustomerPage() {
+
+	}
+
+	public CustomerPage(List<Customer> content, Long nextCursor, int limit) {
+		this.content = content;
+		this.nextCursor = nextCursor;
+		this.limit = limit;
+	}
+
+	public List<Customer> getContent() {
+		return content;
+	}
+
+	public void setContent(List<Customer> content) {
+		this.content = content;
+	}
+
+	public Long getNextCursor() {
+		return nextCursor;
+	}
+
+	public void setNextCursor(Long nextCursor) {
+		this.nextCursor = nextCursor;
+	}
+
+	public int getLimit() {
+		return limit;
+	}
+
+	public void setLimit(int limit) {
+		this.limit = limit;
+	}
+
+}
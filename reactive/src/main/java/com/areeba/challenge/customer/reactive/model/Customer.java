@@ -0,0 +1,191 @@
+package com.areeba.challenge.customer.reactive.model;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonProperty.Access;
+
+/**
+ * Customer entity mapped on the customer table created by customer-ms
+ * 
+ * @author Hussein Zaraket
+ */
+@Table("customer")
+public class Customer {
+
+	// id taken from the customer_seq sequence when a new customer is inserted
+	@Id
+	@Column("customer_id")
+	private Long id;
+
+	// customer name
+	@Column("name")
+	private String name;
+
+	// customer address
+	@Column("address")
+	private String address;
+
+	// customer mobile number, stored normalized and unique
+	@Column("mobile_number")
+	private String mobileNumber;
+
+	// validation status of the mobile number, set by the service only. The mobile numbers are validated before being saved,
+	// customer-ms may still have set a PENDING or INVALID status
+	@JsonProperty(access = Access.READ_ONLY)
+	@Column("mobile_status")
+	private MobileStatus mobileStatus = MobileStatus.VALID;
+
+	// number of failed background validations of the mobile number by customer-ms
+	@JsonIgnore
+	@Column("mobile_validation_attempts")
+	private int mobileValidationAttempts;
+
+	// date from which customer-ms can validate the pending mobile number in background
+	@JsonIgnore
+	@Column("mobile_next_validation")
+	private LocalDateTime mobileNextValidation;
+
+	// version incremented by every update, shared with customer-ms where it's used as ETag of the customer
+	@JsonIgnore
+	@Version
+	@Column("version")
+	private Long version;
+
+	// created date of the customer, that is not changed in any case
+	@JsonIgnore
+	@Column("created_date")
+	private LocalDateTime createdDate;
+
+	// last updated date that is changed in every updated for the record
+	@JsonIgnore
+	@Column("updated_date")
+	private LocalDateTime updatedDate;
+
+	public Customer() {
+
+	}
+
+	public Customer(String name, String address, String mobileNumber) {
+		this.name = name;
+		this.address = address;
+		this.mobileNumber = mobileNumber;
+	}
+
+	public Customer(Long id, String name, String address, String mobileNumber) {
+		this(name, address, mobileNumber);
+		this.id = id;
+	}
+
+	@Override
+	public String toString() {
+		return "Customer [ id = " + id + ", name = " + name + ", address = " + address + ", mobileNumber = "
+				+ mobileNumber + " ]";
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public String getAddress() {
+		return address;
+	}
+
+	public void setAddress(String address) {
+		this.address = address;
+	}
+
+	public String getMobileNumber() {
+		return mobileNumber;
+	}
+
+	public void setMobileNumber(String mobileNumber) {
+		this.mobileNumber = mobileNumber;
+	}
+
+	public MobileStatus getMobileStatus() {
+		return mobileStatus;
+	}
+
+	public void setMobileStatus(MobileStatus mobileStatus) {
+		this.mobileStatus = mobileStatus;
+	}
+
+	public int getMobileValidationAttempts() {
+		return mobileValidationAttempts;
+	}
+
+	public void setMobileValidationAttempts(int mobileValidationAttempts) {
+		this.mobileValidationAttempts = mobileValidationAttempts;
+	}
+
+	public LocalDateTime getMobileNextValidation() {
+		return mobileNextValidation;
+	}
+
+	public void setMobileNextValidation(LocalDateTime mobileNextValidation) {
+		this.mobileNextValidation = mobileNextValidation;
+	}
+
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
+	public LocalDateTime getCreatedDate() {
+		return createdDate;
+	}
+
+	public void setCreatedDate(LocalDateTime createdDate) {
+		this.createdDate = createdDate;
+	}
+
+	public LocalDateTime getUpdatedDate() {
+		return updatedDate;
+	}
+
+	public void setUpdatedDate(LocalDateTime updatedDate) {
+		this.updatedDate = updatedDate;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(address, id, mobileNumber, name);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		Customer other = (Customer) obj;
+		return Objects.equals(address, other.address) && Objects.equals(id, other.id)
+				&& Objects.equals(mobileNumber, other.mobileNumber) && Objects.equals(name, other.name);
+	}
+
+}
@@ -0,0 +1,12 @@
+package com.areeba.challenge.customer.reactive.model;
+
+/**
+ * Type of a customer change event, same as the one of customer-ms
+ * 
+ * @author Hussein Zaraket
+ */
+public enum CustomerEventType {
+
+	CREATED, UPDATED, DELETED
+
+}
@@ -0,0 +1,91 @@
+package com.areeba.challenge.customer.reactive.model;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * Customer change event inserted in the outbox table of customer-ms in the same transaction as the change, the relay of
+ * customer-ms publishes it. The publish columns are left null for the relay
+ * 
+ * @author Hussein Zaraket
+ */
+@Table("customer_outbox")
+public class CustomerOutboxEvent {
+
+	// event id taken from the customer_outbox_seq sequence when the event is inserted
+	@Id
+	@Column("event_id")
+	private Long id;
+
+	// id of the changed customer
+	@Column("customer_id")
+	private Long customerId;
+
+	// type of the change
+	@Column("event_type")
+	private CustomerEventType type;
+
+	// customer as json after the change, null when the customer is deleted
+	@Column("payload")
+	private String payload;
+
+	// date of the change
+	@Column("created_date")
+	private LocalDateTime createdDate;
+
+	public CustomerOutboxEvent() {
+
+	}
+
+	public CustomerOutboxEvent(Long id, Long customerId, CustomerEventType type, String payload) {
+		this.id = id;
+		this.customerId = customerId;
+		this.type = type;
+		this.payload = payload;
+		this.createdDate = LocalDateTime.now();
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public Long getCustomerId() {
+		return customerId;
+	}
+
+	public void setCustomerId(Long customerId) {
+		this.customerId = customerId;
+	}
+
+	public CustomerEventType getType() {
+		return type;
+	}
+
+	public void setType(CustomerEventType type) {
+		this.type = type;
+	}
+
+	public String getPayload() {
+		return payload;
+	}
+
+	public void setPayload(String payload) {
+		this.payload = payload;
+	}
+
+	public LocalDateTime getCreatedDate() {
+		return createdDate;
+	}
+
+	public void setCreatedDate(LocalDateTime createdDate) {
+		this.createdDate = createdDate;
+	}
+
+}
@@ -0,0 +1,17 @@
+package com.areeba.challenge.customer.reactive.model;
+
+/**
+ * Validation status of the customer mobile number, shared with customer-ms
+ * 
+ * @author Hussein Zaraket
+ */
+public enum MobileStatus {
+
+	// waiting for the background validation
+	PENDING,
+	// validated by the mobile validator
+	VALID,
+	// rejected by the mobile validator
+	INVALID
+
+}
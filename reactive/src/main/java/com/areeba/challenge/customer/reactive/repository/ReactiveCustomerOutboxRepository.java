@@ -0,0 +1,25 @@
+package com.areeba.challenge.customer.reactive.repository;
+
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+
+import com.areeba.challenge.customer.reactive.model.CustomerOutboxEvent;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive repository of the customer change events outbox, the events are published by the relay of customer-ms
+ * 
+ * @author Hussein Zaraket
+ */
+public interface ReactiveCustomerOutboxRepository extends ReactiveCrudRepository<CustomerOutboxEvent, Long> {
+
+	/**
+	 * Return the next value of the customer_outbox_seq sequence, used as id of a new event. customer-ms takes the
+	 * following block of ids of the sequence so they do not overlap
+	 * @return
+	 */
+	@Query("select nextval('customer_outbox_seq')")
+	Mono<Long> nextId();
+
+}
@@ -0,0 +1,59 @@
+package com.areeba.challenge.customer.reactive.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+
+import com.areeba.challenge.customer.reactive.model.Customer;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive customer repository, mirror of the CustomerRepository of customer-ms on R2DBC
+ * 
+ * @author Hussein Zaraket
+ */
+public interface ReactiveCustomerRepository extends ReactiveCrudRepository<Customer, Long> {
+
+	/**
+	 * Return the customers having id greater than the passed one ordered by id, limited to the passed number of customers
+	 * @param id
+	 * @param limit
+	 * @return
+	 */
+	@Query("select * from customer where customer_id > :id order by customer_id limit :limit")
+	Flux<Customer> findPage(Long id, int limit);
+
+	/**
+	 * Return the customer having the passed normalized mobile number
+	 * @param mobileNumber
+	 * @return
+	 */
+	Mono<Customer> findByMobileNumber(String mobileNumber);
+
+	/**
+	 * Return the page of the customers having a name starting with the passed prefix, ordered by name then id
+	 * @param prefix
+	 * @param pageable
+	 * @return
+	 */
+	Flux<Customer> findByNameStartingWithOrderByNameAscIdAsc(String prefix, Pageable pageable);
+
+	/**
+	 * Return the next value of the customer_seq sequence, used as id of a new customer
+	 * @return
+	 */
+	@Query("select nextval('customer_seq')")
+	Mono<Long> nextId();
+
+	/**
+	 * Delete the customer having the passed id with a single delete statement
+	 * @param id
+	 * @return the number of deleted customers, 0 in case there is no such customer
+	 */
+	@Modifying
+	@Query("delete from customer where customer_id = :id")
+	Mono<Integer> deleteCustomerById(Long id);
+}
@@ -0,0 +1,247 @@
+package com.areeba.challenge.customer.reactive.service;
+
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import com.areeba.challenge.customer.reactive.dto.CustomerPage;
+import com.areeba.challenge.customer.reactive.exception.CustomerNotFoundException;
+import com.areeba.challenge.customer.reactive.exception.InvalidRequestException;
+import com.areeba.challenge.customer.reactive.model.Customer;
+import com.areeba.challenge.customer.reactive.model.CustomerEventType;
+import com.areeba.challenge.customer.reactive.model.CustomerOutboxEvent;
+import com.areeba.challenge.customer.reactive.model.MobileStatus;
+import com.areeba.challenge.customer.reactive.repository.ReactiveCustomerOutboxRepository;
+import com.areeba.challenge.customer.reactive.repository.ReactiveCustomerRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive customer service that expose CRUD operations for customer without blocking any thread
+ * 
+ * @author Hussein Zaraket
+ */
+@Service
+public class ReactiveCustomerService {
+
+	@Autowired
+	private ReactiveCustomerRepository customerRepository;
+
+	@Autowired
+	private R2dbcEntityTemplate entityTemplate;
+
+	@Autowired
+	private ReactiveMobileNumberService mobileService;
+
+	// outbox of the customer change events, written in the same transaction as the changes
+	@Autowired
+	private ReactiveCustomerOutboxRepository outboxRepository;
+
+	@Autowired
+	private TransactionalOperator transactionalOperator;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	// number of customers returned per page when no limit is passed
+	@Value("${customer.page.defaultLimit:50}")
+	private int defaultPageLimit;
+
+	// maximum number of customers that can be requested in one page
+	@Value("${customer.page.maxLimit:500}")
+	private int maxPageLimit;
+
+	/**
+	 * Return all customers, they are emitted while being read from the database
+	 * @return
+	 */
+	public Flux<Customer> getAllCustomers() {
+		return customerRepository.findAll();
+	}
+
+	/**
+	 * Return a page of customers having id greater than the passed cursor, ordered by id
+	 * @param after id of the last customer already retrieved, null or 0 to start from the beginning
+	 * @param limit maximum number of customers in the page, null to use the default one
+	 * @return
+	 */
+	public Mono<CustomerPage> getCustomersPage(Long after, Integer limit) {
+		long cursor = null == after ? 0L : after;
+		if (cursor < 0) {
+			return Mono.error(new InvalidRequestException("After cursor cannot be negative."));
+		}
+		int pageLimit = null == limit ? defaultPageLimit : limit;
+		if (pageLimit < 1 || pageLimit > maxPageLimit) {
+			return Mono.error(new InvalidRequestException("Limit should be between 1 and " + maxPageLimit + "."));
+		}
+		return customerRepository.findPage(cursor, pageLimit).collectList().map(customers -> {
+			// a full page means there may be more customers after the last one
+			Long nextCursor = customers.size() < pageLimit ? null : customers.get(customers.size() - 1).getId();
+			return new CustomerPage(customers, nextCursor, pageLimit);
+		});
+	}
+
+	/**
+	 * Return customer by id
+	 * @param id
+	 * @return CustomerNotFoundException in case there is not customer with such id,
+	 * InvalidRequestException in case the id is less than or equal 0(invalid)
+	 */
+	public Mono<Customer> getCustomerById(Long id) {
+		if (null == id || id < 1) {
+			return Mono.error(new InvalidRequestException("Id cannot be null."));
+		}
+		return customerRepository.findById(id).switchIfEmpty(Mono.error(new CustomerNotFoundException(id)));
+	}
+
+	/**
+	 * Return the customer having the passed mobile number, the mobile number is normalized before the lookup
+	 * @param mobileNumber
+	 * @return CustomerNotFoundException in case there is no customer with such mobile number,
+	 * InvalidRequestException in case the mobile number is empty
+	 */
+	public Mono<Customer> getCustomerByMobileNumber(String mobileNumber) {
+		String normalizedMobile = ReactiveMobileNumberService.normalize(mobileNumber);
+		if (null == normalizedMobile) {
+			return Mono.error(new InvalidRequestException("Mobile number cannot be empty."));
+		}
+		return customerRepository.findByMobileNumber(normalizedMobile)
+				.switchIfEmpty(Mono.error(new CustomerNotFoundException("mobile number", mobileNumber)));
+	}
+
+	/**
+	 * Return a page of the customers having a name starting with the passed prefix, ordered by name
+	 * @param prefix
+	 * @param page index of the page starting from 0, null for the first page
+	 * @param size maximum number of customers in the page, null to use the default one
+	 * @return InvalidRequestException in case the prefix is empty or the page or size is out of range
+	 */
+	public Flux<Customer> searchCustomersByName(String prefix, Integer page, Integer size) {
+		if (null == prefix || prefix.isBlank()) {
+			return Flux.error(new InvalidRequestException("Name prefix cannot be empty."));
+		}
+		int pageIndex = null == page ? 0 : page;
+		if (pageIndex < 0) {
+			return Flux.error(new InvalidRequestException("Page cannot be negative."));
+		}
+		int pageSize = null == size ? defaultPageLimit : size;
+		if (pageSize < 1 || pageSize > maxPageLimit) {
+			return Flux.error(new InvalidRequestException("Size should be between 1 and " + maxPageLimit + "."));
+		}
+		return customerRepository.findByNameStartingWithOrderByNameAscIdAsc(prefix, PageRequest.of(pageIndex, pageSize));
+	}
+
+	/**
+	 * Create a new customer and return it
+	 * @param customer
+	 * @return InvalidMobileException in case mobileNumber is not valid
+	 */
+	public Mono<Customer> createCustomer(Customer customer) {
+		// check if mobile valid before save
+		return mobileService.validateMobileNumber(customer.getMobileNumber()).then(customerRepository.nextId())
+				.flatMap(id -> {
+					LocalDateTime now = LocalDateTime.now();
+					customer.setId(id);
+					customer.setMobileNumber(ReactiveMobileNumberService.normalize(customer.getMobileNumber()));
+					resetMobileStatus(customer);
+					customer.setCreatedDate(now);
+					customer.setUpdatedDate(now);
+					// insert explicitly as the id is already set
+					return entityTemplate.insert(customer)
+							.flatMap(savedCustomer -> saveOutboxEvent(CustomerEventType.CREATED, savedCustomer.getId(), savedCustomer)
+									.thenReturn(savedCustomer))
+							.as(transactionalOperator::transactional);
+				});
+	}
+
+	/**
+	 * Update specif customer data, the mobile number is validated only if it's changed and its status is reset like customer-ms does,
+	 * so the status of the previous number is not kept
+	 * @param id
+	 * @param customer
+	 * @return InvalidMobileException in case mobileNumber is not valid, CustomerNotFoundException in case there is no such
+	 * customer with the provided id, InvalidRequestException in case the id is less than or equal 0(invalid)
+	 */
+	public Mono<Customer> updateCustomer(Long id, Customer customer) {
+		return getCustomerById(id).flatMap(_customer -> {
+			String normalizedMobile = ReactiveMobileNumberService.normalize(customer.getMobileNumber());
+			if (Objects.equals(_customer.getName(), customer.getName())
+					&& Objects.equals(_customer.getAddress(), customer.getAddress())
+					&& Objects.equals(_customer.getMobileNumber(), normalizedMobile)) {
+				// nothing changed, no need to update the database
+				return Mono.just(_customer);
+			}
+			boolean mobileChanged = !Objects.equals(ReactiveMobileNumberService.normalize(_customer.getMobileNumber()), normalizedMobile);
+			Mono<Void> validation = mobileChanged ? mobileService.validateMobileNumber(customer.getMobileNumber()) : Mono.empty();
+			return validation.then(Mono.defer(() -> {
+				if (mobileChanged) {
+					resetMobileStatus(_customer);
+				}
+				_customer.setName(customer.getName());
+				_customer.setAddress(customer.getAddress());
+				_customer.setMobileNumber(normalizedMobile);
+				_customer.setUpdatedDate(LocalDateTime.now());
+				return customerRepository.save(_customer)
+						.flatMap(savedCustomer -> saveOutboxEvent(CustomerEventType.UPDATED, id, savedCustomer).thenReturn(savedCustomer))
+						.as(transactionalOperator::transactional);
+			}));
+		});
+	}
+
+	/**
+	 * Delete customer by it's id
+	 * @param id
+	 * @return CustomerNotFoundException in case there is no such customer with the provided id,
+	 * InvalidRequestException in case the id is less than or equal 0(invalid)
+	 */
+	public Mono<Void> deleteCustomer(Long id) {
+		if (null == id || id < 1) {
+			return Mono.error(new InvalidRequestException("Id cannot be null."));
+		}
+		return customerRepository.deleteCustomerById(id)
+				.flatMap(deleted -> deleted == 0 ? Mono.<Void>error(new CustomerNotFoundException(id))
+						: saveOutboxEvent(CustomerEventType.DELETED, id, null))
+				.as(transactionalOperator::transactional);
+	}
+
+	/**
+	 * Set the status of a new or changed mobile number, already validated before being saved
+	 * @param customer
+	 */
+	private void resetMobileStatus(Customer customer) {
+		customer.setMobileStatus(MobileStatus.VALID);
+		customer.setMobileValidationAttempts(0);
+		customer.setMobileNextValidation(null);
+	}
+
+	/**
+	 * Insert the change event of the passed customer in the outbox, to be called in the transaction of the change
+	 * @param type
+	 * @param customerId
+	 * @param customer customer after the change, null when it's deleted
+	 * @return
+	 */
+	private Mono<Void> saveOutboxEvent(CustomerEventType type, Long customerId, Customer customer) {
+		return outboxRepository.nextId().flatMap(eventId -> {
+			String payload;
+			try {
+				payload = null == customer ? null : objectMapper.writeValueAsString(customer);
+			} catch (JsonProcessingException e) {
+				return Mono.error(new UncheckedIOException(e));
+			}
+			// insert explicitly as the id is already set
+			return entityTemplate.insert(new CustomerOutboxEvent(eventId, customerId, type, payload));
+		}).then();
+	}
+
+}
@@ -0,0 +1,66 @@
+package com.areeba.challenge.customer.reactive.service;
+
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.areeba.challenge.customer.reactive.exception.InvalidMobileException;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Mobile number service that validate the passed mobile number by calling the mobile validator API without blocking
+ *  
+ * @author Hussein Zaraket
+ */
+@Service
+public class ReactiveMobileNumberService {
+
+	// characters used to format mobile numbers that are removed when normalizing it
+	private static final Pattern MOBILE_SEPARATORS = Pattern.compile("[\\s\\-().]");
+
+	// type of the mobile number details returned by the mobile validator
+	private static final ParameterizedTypeReference<Map<String, Object>> MOBILE_DETAILS = new ParameterizedTypeReference<Map<String, Object>>() {
+	};
+
+	// value of mobilevalidator url is read from application.properties file
+	@Value("${mobileValidator.url}")
+	private String mobileValidatorUrl;
+
+	// non-blocking client of the mobile validator
+	@Autowired
+	private WebClient mobileValidatorWebClient;
+
+	/**
+	 * Validate a specific mobile number, the returned mono completes empty in case it's valid, else with InvalidMobileException
+	 * @param mobile
+	 * @return
+	 */
+	public Mono<Void> validateMobileNumber(String mobile) {
+		String normalizedMobile = normalize(mobile);
+		// the {0} placeholder of the url is expanded with the mobile number
+		return mobileValidatorWebClient.get().uri(mobileValidatorUrl, null == normalizedMobile ? mobile : normalizedMobile)
+				.retrieve().bodyToMono(MOBILE_DETAILS)
+				.flatMap(result -> Boolean.TRUE.equals(result.get("valid")) ? Mono.<Void>empty()
+						: Mono.<Void>error(new InvalidMobileException(mobile)));
+	}
+
+	/**
+	 * Return the mobile number without spaces and formatting characters, null in case nothing remains
+	 * @param mobile
+	 * @return
+	 */
+	public static String normalize(String mobile) {
+		if (null == mobile) {
+			return null;
+		}
+		String normalizedMobile = MOBILE_SEPARATORS.matcher(mobile).replaceAll("");
+		return normalizedMobile.isEmpty() ? null : normalizedMobile;
+	}
+
+}
@@ -0,0 +1,94 @@
+package com.areeba.challenge.customer.reactive;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.areeba.challenge.customer.reactive.controller.ReactiveCustomerController;
+import com.areeba.challenge.customer.reactive.exception.CustomerNotFoundException;
+import com.areeba.challenge.customer.reactive.model.Customer;
+import com.areeba.challenge.customer.reactive.service.ReactiveCustomerService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Class that contain reactive customer controller automation test cases
+ * 
+ * @author Hussein Zaraket
+ */
+@WebFluxTest(ReactiveCustomerController.class)
+public class ReactiveCustomerControllerTest {
+
+	// Used to perform api testing
+	@Autowired
+	private WebTestClient webTestClient;
+
+	// customerService mocked instance in order to be mock it's methods when called
+	@MockBean
+	private ReactiveCustomerService customerService;
+
+	// Test Customer instance
+	private Customer customer1 = new Customer(1L, "Hussein Zaraket", "Lebanon, Beirut", "0096170745563");
+	private Customer customer2 = new Customer(2L, "John Farhat", "Lebanon, Tyre", "009613556441");
+
+	/**
+	 * Test getAllCustomers method success case
+	 */
+	@Test
+	public void getAllCustomers_success() {
+		// mock the getAllCustomer method and return custom data
+		Mockito.when(customerService.getAllCustomers()).thenReturn(Flux.just(customer1, customer2));
+
+		// Call the needed API and insure that the return data is the same as the one specified in above mocking functionality
+		webTestClient.get().uri("/api/customer-service/customers").accept(MediaType.APPLICATION_JSON).exchange()
+				.expectStatus().isOk().expectBody().jsonPath("$.length()").isEqualTo(2)
+				.jsonPath("$[1].name").isEqualTo("John Farhat");
+	}
+
+	/**
+	 * getCustomerById fail case, where the CustomerNotFoundException is returned as error response
+	 */
+	@Test
+	public void getCustomerById_notFound() {
+		// mock the getCustomerById method and return an error
+		Mockito.when(customerService.getCustomerById(5L)).thenReturn(Mono.error(new CustomerNotFoundException(5L)));
+
+		// Call the needed API and insure that the error response contain the needed details
+		webTestClient.get().uri("/api/customer-service/customers/5").accept(MediaType.APPLICATION_JSON).exchange()
+				.expectStatus().isOk().expectBody().jsonPath("$.code").isEqualTo(404)
+				.jsonPath("$.message").isEqualTo("Customer not found with id: 5");
+	}
+
+	/**
+	 * searchCustomersByName success case, the customers having a name starting with the prefix should be returned
+	 */
+	@Test
+	public void searchCustomersByName_success() {
+		// mock the searchCustomersByName method and return custom data
+		Mockito.when(customerService.searchCustomersByName("Hu", null, 20)).thenReturn(Flux.just(customer1));
+
+		webTestClient.get().uri("/api/customer-service/customers/search/name?prefix=Hu&size=20").accept(MediaType.APPLICATION_JSON)
+				.exchange().expectStatus().isOk().expectBody().jsonPath("$.length()").isEqualTo(1)
+				.jsonPath("$[0].name").isEqualTo("Hussein Zaraket").jsonPath("$[0].mobileStatus").isEqualTo("VALID");
+	}
+
+	/**
+	 * getCustomerByMobileNumber fail case, where the CustomerNotFoundException is returned as error response
+	 */
+	@Test
+	public void getCustomerByMobileNumber_notFound() {
+		// mock the getCustomerByMobileNumber method and return an error
+		Mockito.when(customerService.getCustomerByMobileNumber("0096170000000"))
+				.thenReturn(Mono.error(new CustomerNotFoundException("mobile number", "0096170000000")));
+
+		webTestClient.get().uri("/api/customer-service/customers/search/mobile?mobileNumber=0096170000000").accept(MediaType.APPLICATION_JSON)
+				.exchange().expectStatus().isOk().expectBody().jsonPath("$.code").isEqualTo(404)
+				.jsonPath("$.message").isEqualTo("Customer not found with mobile number: 0096170000000");
+	}
+
+}
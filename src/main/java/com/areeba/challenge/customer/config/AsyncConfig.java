@@ -0,0 +1,62 @@
+package com.areeba.challenge.customer.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import com.areeba.challenge.customer.metrics.JdbcStatementCounter;
+
+/**
+ * Configuration of the executors used to run work outside of the request threads
+ * 
+ * @author Hussein Zaraket
+ */
+@Configuration
+public class AsyncConfig {
+
+	// number of threads running the customer service work of the asynchronous API
+	@Value("${customer.async.poolSize:20}")
+	private int asyncPoolSize;
+
+	// number of asynchronous API calls waiting for a thread before new calls are rejected
+	@Value("${customer.async.queueCapacity:1000}")
+	private int asyncQueueCapacity;
+
+	/**
+	 * Default executor used by spring mvc for asynchronous requests like the customers export, it's declared here because
+	 * spring boot does not create it once the application declare its own executors, configured by spring.task.execution properties.
+	 * The statements of its tasks are counted with the request submitting them
+	 * @param builder
+	 * @return
+	 */
+	@Lazy
+	@Primary
+	@Bean(name = { TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+			AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME })
+	public ThreadPoolTaskExecutor applicationTaskExecutor(TaskExecutorBuilder builder) {
+		return builder.taskDecorator(JdbcStatementCounter::propagate).build();
+	}
+
+	/**
+	 * Bounded executor running the customer service work of the asynchronous API, so the request threads are released
+	 * while waiting for the database or the mobile validator. The statements of its tasks are counted with the request submitting them
+	 * @return
+	 */
+	@Bean
+	public ThreadPoolTaskExecutor customerServiceExecutor() {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(asyncPoolSize);
+		executor.setMaxPoolSize(asyncPoolSize);
+		executor.setQueueCapacity(asyncQueueCapacity);
+		executor.setThreadNamePrefix("customer-service-");
+		executor.setTaskDecorator(JdbcStatementCounter::propagate);
+		return executor;
+	}
+
+}
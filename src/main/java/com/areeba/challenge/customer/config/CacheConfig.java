@@ -0,0 +1,18 @@
+package com.areeba.challenge.customer.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Enable the spring cache annotations, the caches are configured by spring.cache properties
+ * 
+ * @author Hussein Zaraket
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+	// name of the cache holding the customers by id
+	public static final String CUSTOMERS_CACHE = "customers";
+
+}
@@ -0,0 +1,122 @@
+package com.areeba.challenge.customer.config;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Check at startup that the connection pool sizes are aligned with the threads using the database, and log a warning otherwise.
+ * The primary pool and each replica pool, which copies the primary settings, are checked against the same threads as a read only
+ * transaction of any of them may be routed to any replica
+ * 
+ * @author Hussein Zaraket
+ */
+@Component
+public class DataSourcePoolCheck {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(DataSourcePoolCheck.class);
+
+	@Autowired
+	private DataSource dataSource;
+
+	// routing of the read only transactions to the replicas, only created when customer.datasource.routing.enabled is true
+	@Autowired(required = false)
+	private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+	// executor of the asynchronous API, each of its threads may hold a connection
+	@Autowired
+	@Qualifier("customerServiceExecutor")
+	private ThreadPoolTaskExecutor customerServiceExecutor;
+
+	// executor of the background validation of the pending mobile numbers saving their status, only created in async mode.
+	// The mobileValidationExecutor of the bulk creation is not counted, its threads only call the mobile validator
+	@Autowired(required = false)
+	@Qualifier("pendingMobileValidationExecutor")
+	private ThreadPoolTaskExecutor pendingMobileValidationExecutor;
+
+	@Value("${customer.async.enabled:true}")
+	private boolean asyncEnabled;
+
+	// threads of the scheduled tasks (outbox relay and cleanup, events tailer, pending mobile validation claim, replicas health
+	// check), each of them may hold a connection
+	@Value("${spring.task.scheduling.pool.size:1}")
+	private int schedulingThreads;
+
+	// maximum number of request threads, each of them may hold a connection
+	@Value("${server.tomcat.threads.max:200}")
+	private int maxRequestThreads;
+
+	/**
+	 * Compare the size of every pool with the executor, scheduling and request threads once the application is started
+	 * @throws SQLException
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void checkPoolSize() throws SQLException {
+		int backgroundThreads = (asyncEnabled ? customerServiceExecutor.getMaxPoolSize() : 0)
+				+ (null == pendingMobileValidationExecutor ? 0 : pendingMobileValidationExecutor.getMaxPoolSize()) + schedulingThreads;
+		for (HikariDataSource hikariDataSource : hikariDataSources()) {
+			checkPoolSize(hikariDataSource, backgroundThreads);
+		}
+	}
+
+	/**
+	 * Compare the size of the passed pool with the background threads, that should all get a connection without waiting, and
+	 * with all the threads that can use it
+	 * @param hikariDataSource
+	 * @param backgroundThreads threads of the executors and the scheduled tasks
+	 */
+	private void checkPoolSize(HikariDataSource hikariDataSource, int backgroundThreads) {
+		int maxPoolSize = hikariDataSource.getMaximumPoolSize();
+		if (backgroundThreads > maxPoolSize) {
+			LOGGER.warn("Connection pool {} has {} connections for the {} threads of the executors and the scheduled tasks, "
+					+ "threads may wait up to {}ms for a connection, align spring.datasource.hikari.maximum-pool-size with customer.async.poolSize, "
+					+ "mobileValidator.async.concurrency and spring.task.scheduling.pool.size",
+					hikariDataSource.getPoolName(), maxPoolSize, backgroundThreads, hikariDataSource.getConnectionTimeout());
+		}
+		if (maxPoolSize > backgroundThreads + maxRequestThreads) {
+			LOGGER.warn("Connection pool {} has {} connections but at most {} threads can use them, reduce spring.datasource.hikari.maximum-pool-size",
+					hikariDataSource.getPoolName(), maxPoolSize, backgroundThreads + maxRequestThreads);
+		}
+		if (hikariDataSource.getMinimumIdle() > maxPoolSize) {
+			LOGGER.warn("Connection pool {} minimum idle {} is greater than its maximum size {}", hikariDataSource.getPoolName(),
+					hikariDataSource.getMinimumIdle(), maxPoolSize);
+		}
+	}
+
+	/**
+	 * Return the pools of the primary and of the replicas when the routing is enabled, the pool of the data source otherwise
+	 * @return
+	 * @throws SQLException
+	 */
+	private List<HikariDataSource> hikariDataSources() throws SQLException {
+		List<DataSource> dataSources = new ArrayList<>();
+		if (null == replicaRoutingDataSource) {
+			dataSources.add(dataSource);
+		} else {
+			dataSources.add(replicaRoutingDataSource.getPrimary());
+			dataSources.addAll(replicaRoutingDataSource.getReplicas().values());
+		}
+		List<HikariDataSource> hikariDataSources = new ArrayList<>(dataSources.size());
+		for (DataSource dataSource : dataSources) {
+			if (dataSource.isWrapperFor(HikariDataSource.class)) {
+				hikariDataSources.add(dataSource.unwrap(HikariDataSource.class));
+			}
+		}
+		return hikariDataSources;
+	}
+
+}
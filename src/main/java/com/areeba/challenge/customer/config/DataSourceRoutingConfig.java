@@ -0,0 +1,102 @@
+package com.areeba.challenge.customer.config;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Configuration of the data source sending the read only transactions to the replicas and the others to the primary configured
+ * by spring.datasource properties. Each replica has its own pool with the same settings as the primary one.
+ * Enabled by customer.datasource.routing.enabled property
+ * 
+ * @author Hussein Zaraket
+ */
+@Configuration
+@ConditionalOnProperty(name = "customer.datasource.routing.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+	// replication lag in seconds of a postgres standby, 0 on a primary or when all the received changes are replayed
+	private static final String POSTGRES_LAG_QUERY = "select case when not pg_is_in_recovery()"
+			+ " or pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0"
+			+ " else extract(epoch from now() - pg_last_xact_replay_timestamp()) end";
+
+	// jdbc urls of the replicas
+	@Value("${customer.datasource.replica.urls:}")
+	private String[] replicaUrls;
+
+	@Value("${customer.datasource.replica.username:${spring.datasource.username}}")
+	private String replicaUsername;
+
+	@Value("${customer.datasource.replica.password:${spring.datasource.password}}")
+	private String replicaPassword;
+
+	// query returning the replication lag of a replica in seconds
+	@Value("${customer.datasource.replica.lagQuery:" + POSTGRES_LAG_QUERY + "}")
+	private String lagQuery;
+
+	// replicas lagging more than this time are not used until they catch up
+	@Value("${customer.datasource.replica.maxLag:10s}")
+	private Duration maxLag;
+
+	/**
+	 * Pool of the primary database, configured by spring.datasource.hikari properties as the auto configured one
+	 * @param properties
+	 * @return
+	 */
+	@Bean
+	@ConfigurationProperties(prefix = "spring.datasource.hikari")
+	public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+		return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+	}
+
+	/**
+	 * Data source routing between the primary and the replicas, the replica pools are closed with it.
+	 * The replica pools are started without connecting so an unavailable replica does not fail the startup
+	 * @param primaryDataSource
+	 * @return
+	 */
+	@Bean(destroyMethod = "close")
+	public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource) {
+		Map<String, DataSource> replicas = new LinkedHashMap<>();
+		for (int i = 0; i < replicaUrls.length; i++) {
+			HikariConfig config = new HikariConfig();
+			// same pool settings and metrics as the primary
+			primaryDataSource.copyStateTo(config);
+			config.setJdbcUrl(replicaUrls[i].trim());
+			config.setUsername(replicaUsername);
+			config.setPassword(replicaPassword);
+			config.setPoolName(primaryDataSource.getPoolName() + "-replica-" + i);
+			config.setReadOnly(true);
+			config.setInitializationFailTimeout(-1);
+			replicas.put("replica-" + i, new HikariDataSource(config));
+		}
+		return new ReplicaRoutingDataSource(primaryDataSource, replicas, lagQuery, maxLag);
+	}
+
+	/**
+	 * Data source used by the application, the connection is only obtained at the first statement so the routing knows
+	 * whether the transaction is read only
+	 * @param replicaRoutingDataSource
+	 * @return
+	 */
+	@Bean
+	@Primary
+	public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+		return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+	}
+
+}
@@ -0,0 +1,48 @@
+package com.areeba.challenge.customer.config;
+
+import javax.servlet.DispatcherType;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import com.areeba.challenge.customer.metrics.RequestMetricsFilter;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Configuration of the application metrics, exposed by the actuator prometheus endpoint
+ * 
+ * @author Hussein Zaraket
+ */
+@Configuration
+public class MetricsConfig {
+
+	/**
+	 * Aspect timing the methods annotated by @Timed
+	 * @param meterRegistry
+	 * @return
+	 */
+	@Bean
+	public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+		return new TimedAspect(meterRegistry);
+	}
+
+	/**
+	 * Register the filter recording the jdbc statements and the response size of each request
+	 * @param meterRegistry
+	 * @return
+	 */
+	@Bean
+	public FilterRegistrationBean<RequestMetricsFilter> requestMetricsFilter(MeterRegistry meterRegistry) {
+		FilterRegistrationBean<RequestMetricsFilter> registration = new FilterRegistrationBean<>(new RequestMetricsFilter(meterRegistry));
+		registration.addUrlPatterns("/api/*");
+		// asynchronous requests are recorded by the dispatch of their result
+		registration.setDispatcherTypes(DispatcherType.REQUEST, DispatcherType.ASYNC);
+		registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+		return registration;
+	}
+
+}
@@ -0,0 +1,193 @@
+package com.areeba.challenge.customer.config;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.client.RestTemplate;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Configuration of the beans used to call the mobile validator API
+ * 
+ * @author Hussein Zaraket
+ */
+@Configuration
+public class MobileValidatorConfig {
+
+	// maximum number of mobile numbers kept in the validation cache
+	@Value("${mobileValidator.cache.maxSize:10000}")
+	private long cacheMaxSize;
+
+	// time a valid mobile number is kept in the validation cache
+	@Value("${mobileValidator.cache.ttl:1h}")
+	private Duration cacheTtl;
+
+	// time an invalid mobile number is kept in the validation cache
+	@Value("${mobileValidator.cache.negativeTtl:5m}")
+	private Duration cacheNegativeTtl;
+
+	// maximum number of pooled connections to the mobile validator
+	@Value("${mobileValidator.http.maxConnections:100}")
+	private int maxConnections;
+
+	// maximum number of pooled connections per host of the mobile validator
+	@Value("${mobileValidator.http.maxConnectionsPerRoute:50}")
+	private int maxConnectionsPerRoute;
+
+	// maximum time to wait for establishing a connection to the mobile validator
+	@Value("${mobileValidator.http.connectTimeout:2s}")
+	private Duration connectTimeout;
+
+	// maximum time to wait for the response of the mobile validator
+	@Value("${mobileValidator.http.readTimeout:5s}")
+	private Duration readTimeout;
+
+	// maximum time to wait for a free connection from the pool
+	@Value("${mobileValidator.http.connectionRequestTimeout:1s}")
+	private Duration connectionRequestTimeout;
+
+	// maximum time an idle connection is kept alive in the pool
+	@Value("${mobileValidator.http.keepAlive:30s}")
+	private Duration keepAlive;
+
+	// number of mobile numbers validated concurrently by a bulk create
+	@Value("${mobileValidator.bulk.parallelism:10}")
+	private int bulkParallelism;
+
+	// number of pending mobile numbers validated concurrently by the background worker
+	@Value("${mobileValidator.async.concurrency:10}")
+	private int asyncConcurrency;
+
+	/**
+	 * Http client shared by all the calls to the mobile validator, connections are pooled and kept alive between calls
+	 * @return
+	 */
+	@Bean(destroyMethod = "close")
+	public CloseableHttpClient mobileValidatorHttpClient() {
+		PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(
+				keepAlive.toMillis(), TimeUnit.MILLISECONDS);
+		connectionManager.setMaxTotal(maxConnections);
+		connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+		RequestConfig requestConfig = RequestConfig.custom().setConnectTimeout((int) connectTimeout.toMillis())
+				.setSocketTimeout((int) readTimeout.toMillis())
+				.setConnectionRequestTimeout((int) connectionRequestTimeout.toMillis()).build();
+		return HttpClients.custom().setConnectionManager(connectionManager).setDefaultRequestConfig(requestConfig)
+				.setKeepAliveStrategy((response, context) -> {
+					// keep the connection alive as the validator asked, without exceeding the configured keep alive
+					long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+					return serverKeepAlive > 0 ? Math.min(serverKeepAlive, keepAlive.toMillis()) : keepAlive.toMillis();
+				}).evictExpiredConnections().evictIdleConnections(keepAlive.toMillis(), TimeUnit.MILLISECONDS).build();
+	}
+
+	/**
+	 * RestTemplate used to call the mobile validator through the pooled http client
+	 * @param builder
+	 * @param mobileValidatorHttpClient
+	 * @return
+	 */
+	@Bean
+	public RestTemplate mobileValidatorRestTemplate(RestTemplateBuilder builder, CloseableHttpClient mobileValidatorHttpClient) {
+		return builder.requestFactory(() -> new HttpComponentsClientHttpRequestFactory(mobileValidatorHttpClient)).build();
+	}
+
+	/**
+	 * Size bounded cache of the validation result by normalized mobile number, invalid numbers expire sooner than valid ones.
+	 * Hits, misses and evictions are exposed as cache metrics with name mobileValidation
+	 * @param meterRegistry
+	 * @return
+	 */
+	@Bean
+	public Cache<String, Boolean> mobileValidationCache(MeterRegistry meterRegistry) {
+		Cache<String, Boolean> cache = Caffeine.newBuilder().maximumSize(cacheMaxSize)
+				.expireAfter(new Expiry<String, Boolean>() {
+					@Override
+					public long expireAfterCreate(String mobile, Boolean valid, long currentTime) {
+						return valid ? cacheTtl.toNanos() : cacheNegativeTtl.toNanos();
+					}
+
+					@Override
+					public long expireAfterUpdate(String mobile, Boolean valid, long currentTime, long currentDuration) {
+						return expireAfterCreate(mobile, valid, currentTime);
+					}
+
+					@Override
+					public long expireAfterRead(String mobile, Boolean valid, long currentTime, long currentDuration) {
+						return currentDuration;
+					}
+				}).recordStats().build();
+		return CaffeineCacheMetrics.monitor(meterRegistry, cache, "mobileValidation");
+	}
+
+	/**
+	 * Circuit breaker that stop calling the mobile validator when too many calls fail or are slow,
+	 * configured by resilience4j.circuitbreaker.instances.mobileValidator properties
+	 * @param circuitBreakerRegistry
+	 * @return
+	 */
+	@Bean
+	public CircuitBreaker mobileValidatorCircuitBreaker(CircuitBreakerRegistry circuitBreakerRegistry) {
+		return circuitBreakerRegistry.circuitBreaker("mobileValidator");
+	}
+
+	/**
+	 * Bulkhead that limit the number of concurrent calls to the mobile validator, so a slow validator cannot block all the
+	 * request threads, configured by resilience4j.bulkhead.instances.mobileValidator properties
+	 * @param bulkheadRegistry
+	 * @return
+	 */
+	@Bean
+	public Bulkhead mobileValidatorBulkhead(BulkheadRegistry bulkheadRegistry) {
+		return bulkheadRegistry.bulkhead("mobileValidator");
+	}
+
+	/**
+	 * Executor used to validate many mobile numbers concurrently, its size bound the parallel calls to the mobile validator
+	 * @return
+	 */
+	@Bean
+	public ThreadPoolTaskExecutor mobileValidationExecutor() {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(bulkParallelism);
+		executor.setMaxPoolSize(bulkParallelism);
+		executor.setThreadNamePrefix("mobile-validation-");
+		return executor;
+	}
+
+	/**
+	 * Executor used by the background worker to validate the pending mobile numbers, its size bound the parallel calls
+	 * to the mobile validator. Only created when mobileValidator.mode is async
+	 * @return
+	 */
+	@Bean
+	@ConditionalOnProperty(name = "mobileValidator.mode", havingValue = "async")
+	public ThreadPoolTaskExecutor pendingMobileValidationExecutor() {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(asyncConcurrency);
+		executor.setMaxPoolSize(asyncConcurrency);
+		executor.setThreadNamePrefix("pending-mobile-validation-");
+		return executor;
+	}
+
+}
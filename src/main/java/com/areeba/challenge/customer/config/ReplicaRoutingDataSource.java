@@ -0,0 +1,199 @@
+package com.areeba.challenge.customer.config;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Data source sending the read only transactions to the healthy replicas in round robin, and everything else to the primary.
+ * A replica is healthy when it answers the lag query with a lag under the maximum one, it's checked by checkReplicas and
+ * taken out of the rotation as soon as a connection cannot be obtained from it until the next check. The read only transactions go to the primary
+ * while no replica is healthy. Should be wrapped in a LazyConnectionDataSourceProxy so the connection is obtained once
+ * the transaction is flagged read only
+ * 
+ * @author Hussein Zaraket
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+	// lookup key of the primary
+	private static final String PRIMARY = "primary";
+
+	private final DataSource primary;
+
+	private final Map<String, DataSource> replicas;
+
+	// query returning the replication lag of a replica in seconds
+	private final String lagQuery;
+
+	// maximum replication lag of a healthy replica
+	private final Duration maxLag;
+
+	// lookup keys of the healthy replicas, replaced as a whole when it changes
+	private volatile List<String> healthyReplicas = Collections.emptyList();
+
+	// index of the next replica used
+	private final AtomicInteger nextReplica = new AtomicInteger();
+
+	/**
+	 * Create the routing data source, all the replicas are considered unhealthy until they are checked
+	 * @param primary
+	 * @param replicas replica data sources by name
+	 * @param lagQuery
+	 * @param maxLag
+	 */
+	public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, String lagQuery, Duration maxLag) {
+		this.primary = primary;
+		this.replicas = new LinkedHashMap<>(replicas);
+		this.lagQuery = lagQuery;
+		this.maxLag = maxLag;
+		Map<Object, Object> targetDataSources = new HashMap<>(replicas);
+		targetDataSources.put(PRIMARY, primary);
+		setTargetDataSources(targetDataSources);
+		setDefaultTargetDataSource(primary);
+	}
+
+	/**
+	 * Return the next healthy replica for the read only transactions, the primary otherwise
+	 */
+	@Override
+	protected Object determineCurrentLookupKey() {
+		if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			return PRIMARY;
+		}
+		List<String> replicaKeys = healthyReplicas;
+		if (replicaKeys.isEmpty()) {
+			return PRIMARY;
+		}
+		return replicaKeys.get(Math.floorMod(nextReplica.getAndIncrement(), replicaKeys.size()));
+	}
+
+	/**
+	 * Return a connection of the routed data source, in case a replica fails to give one it's taken out of the rotation
+	 * and a connection of the primary is returned instead
+	 */
+	@Override
+	public Connection getConnection() throws SQLException {
+		Object lookupKey = determineCurrentLookupKey();
+		if (PRIMARY.equals(lookupKey)) {
+			return primary.getConnection();
+		}
+		try {
+			return replicas.get(lookupKey).getConnection();
+		} catch (SQLException e) {
+			LOGGER.warn("Replica {} unavailable, read only transaction sent to the primary", lookupKey, e);
+			markUnhealthy((String) lookupKey);
+			return primary.getConnection();
+		}
+	}
+
+	/**
+	 * Check the lag of every replica and update the healthy ones
+	 */
+	@Scheduled(fixedDelayString = "${customer.datasource.replica.healthCheckDelay:5000}")
+	public void checkReplicas() {
+		List<String> checkedReplicas = new ArrayList<>(replicas.size());
+		for (Map.Entry<String, DataSource> replica : replicas.entrySet()) {
+			if (isHealthy(replica.getKey(), replica.getValue())) {
+				checkedReplicas.add(replica.getKey());
+			}
+		}
+		synchronized (this) {
+			if (!checkedReplicas.equals(healthyReplicas)) {
+				LOGGER.info("Healthy replicas changed from {} to {}", healthyReplicas, checkedReplicas);
+			}
+			healthyReplicas = Collections.unmodifiableList(checkedReplicas);
+		}
+	}
+
+	/**
+	 * Return the lookup keys of the replicas currently receiving the read only transactions
+	 * @return
+	 */
+	public List<String> getHealthyReplicas() {
+		return healthyReplicas;
+	}
+
+	/**
+	 * Return the primary data source, receiving the transactions that are not read only
+	 * @return
+	 */
+	public DataSource getPrimary() {
+		return primary;
+	}
+
+	/**
+	 * Return the replica data sources by lookup key
+	 * @return
+	 */
+	public Map<String, DataSource> getReplicas() {
+		return Collections.unmodifiableMap(replicas);
+	}
+
+	/**
+	 * Close the pools of the replicas, the primary one is closed by its owner
+	 */
+	public void close() {
+		for (DataSource replica : replicas.values()) {
+			if (replica instanceof AutoCloseable) {
+				try {
+					((AutoCloseable) replica).close();
+				} catch (Exception e) {
+					LOGGER.warn("Replica pool not closed", e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Return true in case the replica answers the lag query with a lag under the maximum one
+	 * @param name
+	 * @param replica
+	 * @return
+	 */
+	private boolean isHealthy(String name, DataSource replica) {
+		try (Connection connection = replica.getConnection();
+				Statement statement = connection.createStatement();
+				ResultSet resultSet = statement.executeQuery(lagQuery)) {
+			double lagSeconds = resultSet.next() ? resultSet.getDouble(1) : 0;
+			if (lagSeconds * 1000 > maxLag.toMillis()) {
+				LOGGER.warn("Replica {} is {}s behind the primary, more than the maximum lag {}", name, lagSeconds, maxLag);
+				return false;
+			}
+			return true;
+		} catch (SQLException e) {
+			LOGGER.warn("Replica {} health check failed", name, e);
+			return false;
+		}
+	}
+
+	/**
+	 * Remove the replica from the healthy ones until it's checked again
+	 * @param name
+	 */
+	private synchronized void markUnhealthy(String name) {
+		List<String> replicaKeys = new ArrayList<>(healthyReplicas);
+		if (replicaKeys.remove(name)) {
+			healthyReplicas = Collections.unmodifiableList(replicaKeys);
+		}
+	}
+
+}
@@ -0,0 +1,16 @@
+package com.areeba.challenge.customer.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enable the scheduled background tasks like the customer outbox relay, they run on the task scheduler configured by
+ * spring.task.scheduling properties
+ * 
+ * @author Hussein Zaraket
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+}
@@ -0,0 +1,90 @@
+package com.areeba.challenge.customer.config;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Check at startup that every id sequence increments by the number of ids hibernate allocates per call, and fail otherwise.
+ * A smaller INCREMENT BY would give overlapping id blocks to the instances and end in duplicate keys
+ * 
+ * @author Hussein Zaraket
+ */
+@Component
+public class SequenceIncrementCheck {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(SequenceIncrementCheck.class);
+
+	// increment of a sequence of the current schema, postgres only
+	private static final String INCREMENT_QUERY = "select increment_by from pg_sequences where schemaname = current_schema() and sequencename = ?";
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private DataSource dataSource;
+
+	/**
+	 * Compare the increment of the sequences with the increment size of their generators once the application is started,
+	 * nothing is checked on other databases than postgres or when the database is not reachable
+	 * @throws IllegalStateException in case a sequence does not increment by the increment size of its generator
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void checkIncrements() {
+		Map<String, Integer> incrementSizes = incrementSizes();
+		try (Connection connection = dataSource.getConnection()) {
+			if (!"PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())) {
+				return;
+			}
+			try (PreparedStatement statement = connection.prepareStatement(INCREMENT_QUERY)) {
+				for (Map.Entry<String, Integer> incrementSize : incrementSizes.entrySet()) {
+					statement.setString(1, incrementSize.getKey());
+					try (ResultSet resultSet = statement.executeQuery()) {
+						if (resultSet.next() && resultSet.getLong(1) != incrementSize.getValue()) {
+							throw new IllegalStateException("Sequence " + incrementSize.getKey() + " increments by " + resultSet.getLong(1)
+									+ " but " + incrementSize.getValue() + " ids are allocated per call, align spring.jpa.properties.hibernate.id."
+									+ incrementSize.getKey() + ".increment_size with the INCREMENT BY of the sequence");
+						}
+					}
+				}
+			}
+		} catch (SQLException e) {
+			LOGGER.warn("Increment of the sequences {} not checked", incrementSizes.keySet(), e);
+		}
+	}
+
+	/**
+	 * Return the number of ids allocated per call by each sequence generator of the entities, by sequence name
+	 * @return
+	 */
+	private Map<String, Integer> incrementSizes() {
+		Map<String, Integer> incrementSizes = new TreeMap<>();
+		SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+		for (EntityPersister persister : sessionFactory.getMetamodel().entityPersisters().values()) {
+			IdentifierGenerator generator = persister.getIdentifierGenerator();
+			if (generator instanceof SequenceStyleGenerator) {
+				SequenceStyleGenerator sequenceGenerator = (SequenceStyleGenerator) generator;
+				incrementSizes.put(sequenceGenerator.getDatabaseStructure().getName(), sequenceGenerator.getOptimizer().getIncrementSize());
+			}
+		}
+		return incrementSizes;
+	}
+
+}
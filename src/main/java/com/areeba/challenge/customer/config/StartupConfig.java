@@ -0,0 +1,114 @@
+package com.areeba.challenge.customer.config;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationInitializer;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.web.context.support.ServletRequestHandledEvent;
+
+import com.areeba.challenge.customer.outbox.CustomerEventTailer;
+import com.areeba.challenge.customer.outbox.CustomerOutboxRelay;
+import com.areeba.challenge.customer.service.MobileValidationWorker;
+
+/**
+ * Startup configuration: beans that should not be lazily initialized, and logging of the startup time and the time to first request
+ * 
+ * @author Hussein Zaraket
+ */
+@Configuration
+public class StartupConfig {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(StartupConfig.class);
+
+	// set once the first request is handled
+	private final AtomicBoolean firstRequestHandled = new AtomicBoolean();
+
+	// stop the application once ready, used by the training start creating the class data sharing archive
+	@Value("${customer.startup.exitWhenReady:false}")
+	private boolean exitWhenReady;
+
+	// paths requested before stopping the application once ready, so the classes serving the requests are loaded by the training start
+	@Value("${customer.startup.trainingRequests:}")
+	private List<String> trainingRequests;
+
+	/**
+	 * Keep the migrations, the connection pool and the entity manager factory created at startup when lazy initialization is enabled,
+	 * so the schema is migrated before the application is ready and the first request does not pay their initialization.
+	 * The outbox relay is also created at startup as its scheduled tasks are only registered once it's created
+	 * @return
+	 */
+	@Bean
+	public static LazyInitializationExcludeFilter startupEagerBeans() {
+		return LazyInitializationExcludeFilter.forBeanTypes(FlywayMigrationInitializer.class, DataSource.class, EntityManagerFactory.class,
+				CustomerOutboxRelay.class, CustomerEventTailer.class, MobileValidationWorker.class);
+	}
+
+	/**
+	 * Log the time from the JVM start to the application being ready, and stop the application after sending the training requests
+	 * when it should exit once ready
+	 * @param event
+	 */
+	@EventListener
+	public void onApplicationReady(ApplicationReadyEvent event) {
+		LOGGER.info("Application ready {}ms after JVM start", ManagementFactory.getRuntimeMXBean().getUptime());
+		if (exitWhenReady) {
+			sendTrainingRequests(event.getApplicationContext().getEnvironment().getProperty("local.server.port"));
+			System.exit(SpringApplication.exit(event.getApplicationContext()));
+		}
+	}
+
+	/**
+	 * Send the training requests to the application listening on the passed port, their responses are ignored as the database
+	 * may not be reachable while training, the error responses going through the same dispatch and serialization
+	 * @param port
+	 */
+	private void sendTrainingRequests(String port) {
+		if (null == port || trainingRequests.isEmpty()) {
+			return;
+		}
+		HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+		for (String path : trainingRequests) {
+			try {
+				HttpResponse<Void> response = httpClient.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+						.timeout(Duration.ofSeconds(30)).GET().build(), HttpResponse.BodyHandlers.discarding());
+				LOGGER.info("Training request {} returned {}", path, response.statusCode());
+			} catch (IOException e) {
+				LOGGER.warn("Training request {} failed", path, e);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Log the time from the JVM start to the first handled request
+	 * @param event
+	 */
+	@EventListener
+	public void onRequestHandled(ServletRequestHandledEvent event) {
+		if (!firstRequestHandled.get() && firstRequestHandled.compareAndSet(false, true)) {
+			LOGGER.info("First request {} handled {}ms after JVM start", event.getRequestUrl(), ManagementFactory.getRuntimeMXBean().getUptime());
+		}
+	}
+
+}
@@ -0,0 +1,161 @@
+package com.areeba.challenge.customer.controller;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.areeba.challenge.customer.dto.CustomerFields;
+import com.areeba.challenge.customer.dto.CustomerPage;
+import com.areeba.challenge.customer.dto.CustomerSummary;
+import com.areeba.challenge.customer.model.Customer;
+import com.areeba.challenge.customer.service.CustomerService;
+
+/**
+ * Controller that expose the same CRUD operations APIs as CustomerController asynchronously, the request thread is released
+ * while the customer service work runs on the bounded customerServiceExecutor, so the concurrent calls are not limited by
+ * the number of request threads. Enabled by customer.async.enabled property
+ * 
+ * @author Hussein Zaraket
+ */
+@CrossOrigin
+@RestController
+@RequestMapping("/api/customer-service/async")
+@ConditionalOnProperty(name = "customer.async.enabled", havingValue = "true", matchIfMissing = true)
+public class CustomerAsyncController {
+
+	// Inject the needed service to use it below
+	@Autowired
+	private CustomerService customerService;
+
+	// executor running the customer service calls
+	@Autowired
+	@Qualifier("customerServiceExecutor")
+	private Executor customerServiceExecutor;
+
+	/**
+	 * API that return one page of customers ordered by id, see CustomerController.getCustomersPage
+	 * @param after
+	 * @param limit
+	 * @param fields summary or full, full by default
+	 * @return
+	 */
+	@GetMapping("/customers/page")
+	public CompletableFuture<ResponseEntity<CustomerPage<CustomerSummary>>> getCustomersPage(
+			@RequestParam(name = "after", required = false) Long after, @RequestParam(name = "limit", required = false) Integer limit,
+			@RequestParam(name = "fields", required = false) String fields) {
+		return supplyAsync(() -> new ResponseEntity<>(customerService.getCustomersPage(after, limit, CustomerFields.of(fields)), HttpStatus.OK));
+	}
+
+	/**
+	 * API that return specific customer by it's id with its version as ETag, see CustomerController.getCustomerById.
+	 * In case the If-None-Match header contains the current version, only the ETag is returned so the response becomes
+	 * 304 Not Modified without loading the customer
+	 * @param id
+	 * @param ifNoneMatch
+	 * @return
+	 */
+	@GetMapping("/customers/{id}")
+	public CompletableFuture<ResponseEntity<Customer>> getCustomerById(@PathVariable("id") Long id,
+			@RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+		return supplyAsync(() -> {
+			if (null != ifNoneMatch) {
+				Long version = customerService.getCustomerVersion(id);
+				if (CustomerETags.matches(ifNoneMatch, version)) {
+					// the ETag matching If-None-Match turns the response into 304 Not Modified
+					return new ResponseEntity<>(CustomerETags.eTagHeaders(version), HttpStatus.OK);
+				}
+			}
+			Customer customer = customerService.getCustomerById(id);
+			return new ResponseEntity<>(customer, CustomerETags.eTagHeaders(customer), HttpStatus.OK);
+		});
+	}
+
+	/**
+	 * API that create new customer and return it after creation
+	 * @param customer
+	 * @return
+	 */
+	@PostMapping("/customers")
+	public CompletableFuture<ResponseEntity<Customer>> createCustomer(@RequestBody Customer customer) {
+		return supplyAsync(() -> new ResponseEntity<>(customerService.createCustomer(customer), HttpStatus.CREATED));
+	}
+
+	/**
+	 * API that update a specific customer, in case the If-Match header is passed the customer is only updated
+	 * if its current version is the passed ETag, see CustomerController.updateCustomer
+	 * @param id
+	 * @param customer
+	 * @param ifMatch
+	 * @return
+	 */
+	@PutMapping("/customers/{id}")
+	public CompletableFuture<ResponseEntity<Customer>> updateCustomer(@PathVariable("id") Long id, @RequestBody Customer customer,
+			@RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		return supplyAsync(() -> {
+			Long expectedVersion = CustomerETags.expectedVersion(id, ifMatch);
+			Customer retrievedCust = null == expectedVersion ? customerService.updateCustomer(id, customer)
+					: customerService.updateCustomer(id, customer, expectedVersion);
+			return new ResponseEntity<>(retrievedCust, CustomerETags.eTagHeaders(retrievedCust), HttpStatus.OK);
+		});
+	}
+
+	/**
+	 * API that delete a specific customer
+	 * @param id
+	 * @return
+	 */
+	@DeleteMapping("/customers/{id}")
+	public CompletableFuture<ResponseEntity<HttpStatus>> deleteCustomer(@PathVariable("id") Long id) {
+		return supplyAsync(() -> {
+			customerService.deleteCustomer(id);
+			return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+		});
+	}
+
+	/**
+	 * Run the passed service call on the customer service executor, the exceptions are handled by CustomControllerAdvice
+	 * once the returned future completes
+	 * @param <T>
+	 * @param serviceCall
+	 * @return
+	 */
+	private <T> CompletableFuture<T> supplyAsync(ServiceCall<T> serviceCall) {
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				return serviceCall.call();
+			} catch (RuntimeException e) {
+				throw e;
+			} catch (Exception e) {
+				throw new CompletionException(e);
+			}
+		}, customerServiceExecutor);
+	}
+
+	/**
+	 * Customer service call that may throw the checked exceptions of the service
+	 * @param <T>
+	 */
+	@FunctionalInterface
+	private interface ServiceCall<T> {
+		T call() throws Exception;
+	}
+
+}
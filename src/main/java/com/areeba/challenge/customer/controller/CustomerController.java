@@ -1,20 +1,44 @@
 package com.areeba.challenge.customer.controller;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.Callable;
+
+import javax.servlet.http.HttpServletRequest;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.areeba.challenge.customer.dto.BulkCreateResult;
+import com.areeba.challenge.customer.dto.BulkMutationResult;
+import com.areeba.challenge.customer.dto.BulkPatchRequest;
+import com.areeba.challenge.customer.dto.CustomerFields;
+import com.areeba.challenge.customer.dto.CustomerMobileStatus;
+import com.areeba.challenge.customer.dto.CustomerPage;
+import com.areeba.challenge.customer.dto.CustomerSummary;
 import com.areeba.challenge.customer.exception.CustomerNotFoundException;
 import com.areeba.challenge.customer.exception.InvalidMobileException;
 import com.areeba.challenge.customer.exception.InvalidRequestException;
@@ -35,32 +59,145 @@ public class CustomerController {
 	@Autowired
 	private CustomerService customerService;
 
+	// time an export can stream the customers before it is cancelled, the other asynchronous requests keep the default timeout
+	@Value("${customer.export.timeout:1h}")
+	private Duration exportTimeout;
+
 	/**
-	 * API that return all the customers in the database
+	 * API that return the customers ordered by id one page at a time, so the whole table is never loaded nor serialized at once.
+	 * The customers are returned as a list like before the paging, the first page being returned when no parameter is passed,
+	 * and the next page is linked by the Link header (rel="next") holding the after cursor until the last page is reached.
+	 * Only the columns of the selected fields are read, as projections instead of entities
+	 * @param after id of the last customer already retrieved, the first page is returned by default
+	 * @param limit maximum number of customers returned, customer.page.defaultLimit by default and up to customer.page.maxLimit
+	 * @param fields summary or full, full by default
 	 * @return
+	 * @throws InvalidRequestException in case the cursor is negative, the limit is out of range or the fields are unknown
 	 */
 	@GetMapping("/customers")
-	public ResponseEntity<List<Customer>> getAllCustomers() {
-		List<Customer> customerList = customerService.getAllCustomers();
-		if (null == customerList || customerList.isEmpty()) {
+	public ResponseEntity<List<CustomerSummary>> getAllCustomers(@RequestParam(name = "after", required = false) Long after,
+			@RequestParam(name = "limit", required = false) Integer limit,
+			@RequestParam(name = "fields", required = false) String fields) throws InvalidRequestException {
+		CustomerPage<CustomerSummary> customerPage = customerService.getCustomersPage(after, limit, CustomerFields.of(fields));
+		if (customerPage.getContent().isEmpty()) {
 			return new ResponseEntity<>(HttpStatus.NO_CONTENT);
 		}
-		return new ResponseEntity<>(customerList, HttpStatus.OK);
+		HttpHeaders headers = new HttpHeaders();
+		if (null != customerPage.getNextCursor()) {
+			String next = ServletUriComponentsBuilder.fromCurrentRequest().replaceQueryParam("after", customerPage.getNextCursor())
+					.replaceQueryParam("limit", customerPage.getLimit()).toUriString();
+			headers.add(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+		}
+		return new ResponseEntity<>(customerPage.getContent(), headers, HttpStatus.OK);
 	}
 
 	/**
-	 * API that return specific customer by it's id
+	 * API that return one page of customers ordered by id, the nextCursor of the response should be passed as after
+	 * parameter to get the next page, so every page costs the same whatever how deep the client is.
+	 * The fields parameter select the returned customer fields: summary(id and name) or full
+	 * @param after
+	 * @param limit
+	 * @param fields summary or full, full by default
+	 * @return
+	 * @throws InvalidRequestException
+	 */
+	@GetMapping("/customers/page")
+	public ResponseEntity<CustomerPage<CustomerSummary>> getCustomersPage(@RequestParam(name = "after", required = false) Long after,
+			@RequestParam(name = "limit", required = false) Integer limit,
+			@RequestParam(name = "fields", required = false) String fields) throws InvalidRequestException {
+		CustomerPage<CustomerSummary> customerPage = customerService.getCustomersPage(after, limit, CustomerFields.of(fields));
+		return new ResponseEntity<>(customerPage, HttpStatus.OK);
+	}
+
+	/**
+	 * API that export all the customers as newline delimited json, the response is streamed while reading from the database
+	 * so the first customers are sent immediately and the whole table is never hold in memory.
+	 * The export times out after the export timeout instead of the asynchronous requests one
+	 * @param request
+	 * @return
+	 */
+	@GetMapping(value = "/customers/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> exportCustomers(HttpServletRequest request) {
+		WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(ExportTimeoutInterceptor.class, new ExportTimeoutInterceptor());
+		StreamingResponseBody body = out -> customerService.exportCustomers(out);
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_NDJSON);
+		return new ResponseEntity<>(body, headers, HttpStatus.OK);
+	}
+
+	/**
+	 * API that return specific customer by it's id with its version as ETag. In case the If-None-Match header contains
+	 * the current version, 304 Not Modified is returned from the version alone without loading nor serializing the customer
 	 * @param id
+	 * @param request
 	 * @return
 	 * @throws CustomerNotFoundException
 	 * @throws InvalidRequestException
 	 */
 	@GetMapping("/customers/{id}")
-	public ResponseEntity<Customer> getCustomerById(@PathVariable("id") Long id) throws CustomerNotFoundException, InvalidRequestException {
+	public ResponseEntity<Customer> getCustomerById(@PathVariable("id") Long id, WebRequest request)
+			throws CustomerNotFoundException, InvalidRequestException {
+		if (null != request.getHeader(HttpHeaders.IF_NONE_MATCH)) {
+			Long version = customerService.getCustomerVersion(id);
+			if (null != version && request.checkNotModified(CustomerETags.eTag(version))) {
+				// the not modified status and the ETag are already set on the response
+				return null;
+			}
+		}
 		Customer customer = customerService.getCustomerById(id);
+		return new ResponseEntity<>(customer, CustomerETags.eTagHeaders(customer), HttpStatus.OK);
+	}
+
+	/**
+	 * API that return the validation status of the mobile number of specific customer, PENDING until it's validated
+	 * in background when the mobile validator mode is async
+	 * @param id
+	 * @return
+	 * @throws CustomerNotFoundException
+	 * @throws InvalidRequestException
+	 */
+	@GetMapping("/customers/{id}/mobile-status")
+	public ResponseEntity<CustomerMobileStatus> getMobileStatus(@PathVariable("id") Long id)
+			throws CustomerNotFoundException, InvalidRequestException {
+		return new ResponseEntity<>(customerService.getMobileStatus(id), HttpStatus.OK);
+	}
+
+	/**
+	 * API that return the customer having the passed mobile number
+	 * @param mobileNumber
+	 * @return
+	 * @throws CustomerNotFoundException
+	 * @throws InvalidRequestException
+	 */
+	@GetMapping("/customers/search/mobile")
+	public ResponseEntity<Customer> getCustomerByMobileNumber(@RequestParam("mobileNumber") String mobileNumber)
+			throws CustomerNotFoundException, InvalidRequestException {
+		Customer customer = customerService.getCustomerByMobileNumber(mobileNumber);
 		return new ResponseEntity<>(customer, HttpStatus.OK);
 	}
 
+	/**
+	 * API that return a page of the customers having a name starting with the passed prefix,
+	 * the fields parameter select the returned customer fields: summary(id and name) or full
+	 * @param prefix
+	 * @param page
+	 * @param size
+	 * @param fields summary or full, full by default
+	 * @return
+	 * @throws InvalidRequestException
+	 */
+	@GetMapping("/customers/search/name")
+	public ResponseEntity<List<CustomerSummary>> searchCustomersByName(@RequestParam("prefix") String prefix,
+			@RequestParam(name = "page", required = false) Integer page,
+			@RequestParam(name = "size", required = false) Integer size,
+			@RequestParam(name = "fields", required = false) String fields) throws InvalidRequestException {
+		List<CustomerSummary> customerList = customerService.searchCustomersByName(prefix, page, size, CustomerFields.of(fields));
+		if (customerList.isEmpty()) {
+			return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+		}
+		return new ResponseEntity<>(customerList, HttpStatus.OK);
+	}
+
 	/**
 	 * API that create new customer and return it after creation
 	 * @param customer
@@ -74,20 +211,38 @@ public class CustomerController {
 	}
 
 	/**
-	 * API that update a specific customer
+	 * API that create many customers at once and return the result of each one, the customers that fail do not
+	 * prevent the others from being created
+	 * @param customers
+	 * @return
+	 * @throws InvalidRequestException
+	 */
+	@PostMapping("/customers/bulk")
+	public ResponseEntity<List<BulkCreateResult>> createCustomers(@RequestBody List<Customer> customers) throws InvalidRequestException {
+		List<BulkCreateResult> results = customerService.createCustomers(customers);
+		return new ResponseEntity<>(results, HttpStatus.OK);
+	}
+
+	/**
+	 * API that update a specific customer, in case the If-Match header is passed the customer is only updated
+	 * if its current version is the passed ETag
 	 * 
 	 * @param id
 	 * @param customer
+	 * @param ifMatch
 	 * @return
 	 * @throws InvalidMobileException
 	 * @throws CustomerNotFoundException
 	 * @throws InvalidRequestException
 	 */
 	@PutMapping("/customers/{id}")
-	public ResponseEntity<Customer> updateCustomer(@PathVariable("id") Long id, @RequestBody Customer customer)
+	public ResponseEntity<Customer> updateCustomer(@PathVariable("id") Long id, @RequestBody Customer customer,
+			@RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch)
 			throws InvalidMobileException, CustomerNotFoundException, InvalidRequestException {
-		Customer retrievedCust = customerService.updateCustomer(id, customer);
-		return new ResponseEntity<>(retrievedCust, HttpStatus.OK);
+		Long expectedVersion = CustomerETags.expectedVersion(id, ifMatch);
+		Customer retrievedCust = null == expectedVersion ? customerService.updateCustomer(id, customer)
+				: customerService.updateCustomer(id, customer, expectedVersion);
+		return new ResponseEntity<>(retrievedCust, CustomerETags.eTagHeaders(retrievedCust), HttpStatus.OK);
 	}
 
 	/**
@@ -104,4 +259,42 @@ public class CustomerController {
 		return new ResponseEntity<>(HttpStatus.NO_CONTENT);
 	}
 
+	/**
+	 * API that set the passed name and/or address on many customers at once
+	 * 
+	 * @param request
+	 * @return
+	 * @throws InvalidRequestException
+	 */
+	@PatchMapping("/customers/bulk")
+	public ResponseEntity<BulkMutationResult> patchCustomers(@RequestBody BulkPatchRequest request) throws InvalidRequestException {
+		BulkMutationResult result = customerService.patchCustomers(request);
+		return new ResponseEntity<>(result, HttpStatus.OK);
+	}
+
+	/**
+	 * API that delete many customers at once by their ids
+	 * 
+	 * @param ids
+	 * @return
+	 * @throws InvalidRequestException
+	 */
+	@PostMapping("/customers/bulk-delete")
+	public ResponseEntity<BulkMutationResult> deleteCustomers(@RequestBody List<Long> ids) throws InvalidRequestException {
+		BulkMutationResult result = customerService.deleteCustomers(ids);
+		return new ResponseEntity<>(result, HttpStatus.OK);
+	}
+
+	/**
+	 * Set the export timeout on the asynchronous request streaming the export, before the request is started asynchronously
+	 */
+	private class ExportTimeoutInterceptor implements CallableProcessingInterceptor {
+
+		@Override
+		public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+			((AsyncWebRequest) request).setTimeout(exportTimeout.toMillis());
+		}
+
+	}
+
 }
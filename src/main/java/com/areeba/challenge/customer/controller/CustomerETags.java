@@ -0,0 +1,106 @@
+package com.areeba.challenge.customer.controller;
+
+import org.springframework.http.HttpHeaders;
+
+import com.areeba.challenge.customer.exception.CustomerVersionMismatchException;
+import com.areeba.challenge.customer.model.Customer;
+
+/**
+ * Customer versions used as ETags by the synchronous and the asynchronous customer controllers, so both APIs return
+ * the same ETags and refuse the same stale updates
+ * 
+ * @author Hussein Zaraket
+ */
+final class CustomerETags {
+
+	private CustomerETags() {
+
+	}
+
+	/**
+	 * Return the strong ETag of the passed customer version
+	 * @param version
+	 * @return
+	 */
+	static String eTag(Long version) {
+		return "\"" + version + "\"";
+	}
+
+	/**
+	 * Return the headers containing the ETag of the passed customer, empty in case it has no version
+	 * @param customer
+	 * @return
+	 */
+	static HttpHeaders eTagHeaders(Customer customer) {
+		return eTagHeaders(null == customer ? null : customer.getVersion());
+	}
+
+	/**
+	 * Return the headers containing the ETag of the passed customer version, empty in case there is no version
+	 * @param version
+	 * @return
+	 */
+	static HttpHeaders eTagHeaders(Long version) {
+		HttpHeaders headers = new HttpHeaders();
+		if (null != version) {
+			headers.setETag(eTag(version));
+		}
+		return headers;
+	}
+
+	/**
+	 * Return true in case the passed If-None-Match header contains the ETag of the passed version, weak ETags match as
+	 * If-None-Match uses the weak comparison
+	 * @param ifNoneMatch
+	 * @param version
+	 * @return
+	 */
+	static boolean matches(String ifNoneMatch, Long version) {
+		if (null == ifNoneMatch || null == version) {
+			return false;
+		}
+		String eTag = eTag(version);
+		for (String candidate : ifNoneMatch.split(",")) {
+			candidate = candidate.trim();
+			if (candidate.startsWith("W/")) {
+				candidate = candidate.substring(2);
+			}
+			if ("*".equals(candidate) || eTag.equals(candidate)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Return the version the customer should have to be updated according to the passed If-Match header, null in case
+	 * the header is missing or matches any version
+	 * @param id
+	 * @param ifMatch
+	 * @return
+	 * @throws CustomerVersionMismatchException in case the ETag is weak or is not a customer version
+	 */
+	static Long expectedVersion(Long id, String ifMatch) {
+		return null == ifMatch || "*".equals(ifMatch.trim()) ? null : parseETag(id, ifMatch);
+	}
+
+	/**
+	 * Return the version of the passed If-Match ETag, weak ETags never match as If-Match uses the strong comparison
+	 * @param id
+	 * @param ifMatch
+	 * @return
+	 * @throws CustomerVersionMismatchException in case the ETag is weak or is not a customer version
+	 */
+	private static Long parseETag(Long id, String ifMatch) {
+		String eTag = ifMatch.trim();
+		if (eTag.length() > 2 && eTag.startsWith("\"") && eTag.endsWith("\"")) {
+			try {
+				return Long.valueOf(eTag.substring(1, eTag.length() - 1));
+			} catch (NumberFormatException e) {
+				// not a customer version
+			}
+		}
+		throw new CustomerVersionMismatchException(id, ifMatch);
+	}
+
+}
@@ -0,0 +1,76 @@
+package com.areeba.challenge.customer.controller;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.areeba.challenge.customer.dto.CustomerEvent;
+import com.areeba.challenge.customer.exception.InvalidRequestException;
+import com.areeba.challenge.customer.outbox.LocalCustomerEventSink;
+import com.areeba.challenge.customer.service.CustomerEventService;
+
+/**
+ * Controller that expose the customer change events, so the consumers receive the changes instead of reading all the customers
+ * 
+ * @author Hussein Zaraket
+ */
+@CrossOrigin
+@RestController
+@RequestMapping("/api/customer-service")
+public class CustomerEventController {
+
+	@Autowired
+	private CustomerEventService customerEventService;
+
+	@Autowired
+	private LocalCustomerEventSink localCustomerEventSink;
+
+	// time a long-polling request waits for new events before returning no event
+	@Value("${customer.events.pollTimeout:30s}")
+	private Duration pollTimeout;
+
+	/**
+	 * API that return the events having position greater than the passed cursor, the id of the last event should be passed as after
+	 * to get the next ones. In case there is no such event yet, the request waits for the next published events until the poll timeout
+	 * @param after
+	 * @param limit
+	 * @return
+	 * @throws InvalidRequestException
+	 */
+	@GetMapping("/customers/events")
+	public DeferredResult<List<CustomerEvent>> getEvents(@RequestParam(name = "after", required = false) Long after,
+			@RequestParam(name = "limit", required = false) Integer limit) throws InvalidRequestException {
+		long cursor = customerEventService.checkCursor(after);
+		int eventsLimit = customerEventService.checkLimit(limit);
+		DeferredResult<List<CustomerEvent>> result = new DeferredResult<>(pollTimeout.toMillis(), Collections.emptyList());
+		List<CustomerEvent> events = customerEventService.getEvents(cursor, eventsLimit);
+		if (events.isEmpty()) {
+			localCustomerEventSink.poll(cursor, eventsLimit, result);
+		} else {
+			result.setResult(events);
+		}
+		return result;
+	}
+
+	/**
+	 * API that stream the events published from now as server-sent events, whatever the instance that published them.
+	 * A disconnected client should catch up with the events API from the id of the last received event
+	 * @return
+	 */
+	@GetMapping(value = "/customers/events/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter streamEvents() {
+		return localCustomerEventSink.subscribe();
+	}
+
+}
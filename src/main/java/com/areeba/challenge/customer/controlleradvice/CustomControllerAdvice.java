@@ -1,5 +1,9 @@
 package com.areeba.challenge.customer.controlleradvice;
 
+import java.util.concurrent.RejectedExecutionException;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -7,8 +11,11 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 
 import com.areeba.challenge.customer.error.ErrorResponse;
 import com.areeba.challenge.customer.exception.CustomerNotFoundException;
+import com.areeba.challenge.customer.exception.CustomerVersionMismatchException;
 import com.areeba.challenge.customer.exception.InvalidMobileException;
 import com.areeba.challenge.customer.exception.InvalidRequestException;
+import com.areeba.challenge.customer.exception.MobileValidatorUnavailableException;
+import com.areeba.challenge.customer.model.Customer;
 
 /**
  * Class that handle all exception thrown by application API, in order to return it in a common way with specific json format
@@ -29,6 +36,29 @@ public class CustomControllerAdvice {
 				HttpStatus.OK);
 	}
 
+	/**
+	 * Handle the MobileValidatorUnavailableException and return json data the contain the needed details
+	 * @param e
+	 * @return
+	 */
+	@ExceptionHandler(MobileValidatorUnavailableException.class)
+	public ResponseEntity<ErrorResponse> handleMobileValidatorUnavailableExceptions(Exception e) {
+		return new ResponseEntity<>(new ErrorResponse(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage()),
+				HttpStatus.OK);
+	}
+
+	/**
+	 * Handle the RejectedExecutionException, thrown when the asynchronous API has too many calls waiting,
+	 * and return json data the contain the needed details
+	 * @param e
+	 * @return
+	 */
+	@ExceptionHandler(RejectedExecutionException.class)
+	public ResponseEntity<ErrorResponse> handleRejectedExecutionExceptions(Exception e) {
+		return new ResponseEntity<>(new ErrorResponse(HttpStatus.SERVICE_UNAVAILABLE, "Too many requests, please try again later"),
+				HttpStatus.OK);
+	}
+
 	/**
 	 * Handle the CustomerNotFoundException and return json data the contain the needed details
 	 * @param e
@@ -60,6 +90,34 @@ public class CustomControllerAdvice {
 		return new ResponseEntity<>(new ErrorResponse(HttpStatus.BAD_REQUEST, e.getMessage()), HttpStatus.OK);
 	}
 
+	/**
+	 * Handle the DataIntegrityViolationException, thrown when the mobile number is already used by another customer
+	 * or the data breaks another constraint of the database, and return json data the contain the needed details
+	 * @param e
+	 * @return
+	 */
+	@ExceptionHandler(DataIntegrityViolationException.class)
+	public ResponseEntity<ErrorResponse> handleDataIntegrityViolationExceptions(Exception e) {
+		if (Customer.isMobileNumberViolation(e)) {
+			return new ResponseEntity<>(new ErrorResponse(HttpStatus.CONFLICT, "Customer conflicts with an existing customer, mobile number should be unique"),
+					HttpStatus.OK);
+		}
+		return new ResponseEntity<>(new ErrorResponse(HttpStatus.BAD_REQUEST, "Invalid request, customer data breaks a database constraint"),
+				HttpStatus.OK);
+	}
+
+	/**
+	 * Handle the CustomerVersionMismatchException and the OptimisticLockingFailureException, thrown when the customer
+	 * was updated since the client read it, and return json data the contain the needed details
+	 * @param e
+	 * @return
+	 */
+	@ExceptionHandler({ CustomerVersionMismatchException.class, OptimisticLockingFailureException.class })
+	public ResponseEntity<ErrorResponse> handleVersionMismatchExceptions(Exception e) {
+		return new ResponseEntity<>(new ErrorResponse(HttpStatus.PRECONDITION_FAILED,
+				"Customer was modified by another request, please get it again before updating"), HttpStatus.OK);
+	}
+
 	/**
 	 * Handle the Exception and return json data the contain the needed details
 	 * @param e
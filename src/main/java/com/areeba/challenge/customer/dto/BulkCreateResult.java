@@ -0,0 +1,96 @@
+package com.areeba.challenge.customer.dto;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Result of the creation of one customer of a bulk create request, the customers failing do not abort the others
+ * 
+ * @author Hussein Zaraket
+ */
+public class BulkCreateResult {
+
+	// index of the customer in the bulk request
+	private int index;
+	// id of the created customer, null in case it's not created
+	private Long id;
+	// the response code of the creation
+	private int code;
+	// status of the creation
+	private String status;
+	// error message in case the customer is not created
+	private String message;
+
+	public BulkCreateResult() {
+
+	}
+
+	public BulkCreateResult(int index, Long id, HttpStatus httpStatus, String message) {
+		this.index = index;
+		this.id = id;
+		this.code = httpStatus.value();
+		this.status = httpStatus.name();
+		this.message = message;
+	}
+
+	/**
+	 * Result of a customer created successfully
+	 * @param index
+	 * @param id
+	 * @return
+	 */
+	public static BulkCreateResult created(int index, Long id) {
+		return new BulkCreateResult(index, id, HttpStatus.CREATED, null);
+	}
+
+	/**
+	 * Result of a customer that failed to be created
+	 * @param index
+	 * @param httpStatus
+	 * @param message
+	 * @return
+	 */
+	public static BulkCreateResult failed(int index, HttpStatus httpStatus, String message) {
+		return new BulkCreateResult(index, null, httpStatus, message);
+	}
+
+	public int getIndex() {
+		return index;
+	}
+
+	public void setIndex(int index) {
+		this.index = index;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public int getCode() {
+		return code;
+	}
+
+	public void setCode(int code) {
+		this.code = code;
+	}
+
+	public String getStatus() {
+		return status;
+	}
+
+	public void setStatus(String status) {
+		this.status = status;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	public void setMessage(String message) {
+		this.message = message;
+	}
+
+}
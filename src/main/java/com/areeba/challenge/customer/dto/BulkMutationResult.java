@@ -0,0 +1,42 @@
+package com.areeba.challenge.customer.dto;
+
+import java.util.List;
+
+/**
+ * Result of a bulk delete or a bulk patch
+ * 
+ * @author Hussein Zaraket
+ */
+public class BulkMutationResult {
+
+	// number of customers deleted or updated
+	private int affected;
+	// requested ids that do not belong to any customer
+	private List<Long> missingIds;
+
+	public BulkMutationResult() {
+
+	}
+
+	public BulkMutationResult(int affected, List<Long> missingIds) {
+		this.affected = affected;
+		this.missingIds = missingIds;
+	}
+
+	public int getAffected() {
+		return affected;
+	}
+
+	public void setAffected(int affected) {
+		this.affected = affected;
+	}
+
+	public List<Long> getMissingIds() {
+		return missingIds;
+	}
+
+	public void setMissingIds(List<Long> missingIds) {
+		this.missingIds = missingIds;
+	}
+
+}
@@ -0,0 +1,53 @@
+package com.areeba.challenge.customer.dto;
+
+import java.util.List;
+
+/**
+ * Request of a bulk patch, the fields that are not null are set on all the customers having the passed ids
+ * 
+ * @author Hussein Zaraket
+ */
+public class BulkPatchRequest {
+
+	// ids of the customers to patch
+	private List<Long> ids;
+	// new name of the customers, null to keep the current one
+	private String name;
+	// new address of the customers, null to keep the current one
+	private String address;
+
+	public BulkPatchRequest() {
+
+	}
+
+	public BulkPatchRequest(List<Long> ids, String name, String address) {
+		this.ids = ids;
+		this.name = name;
+		this.address = address;
+	}
+
+	public List<Long> getIds() {
+		return ids;
+	}
+
+	public void setIds(List<Long> ids) {
+		this.ids = ids;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public String getAddress() {
+		return address;
+	}
+
+	public void setAddress(String address) {
+		this.address = address;
+	}
+
+}
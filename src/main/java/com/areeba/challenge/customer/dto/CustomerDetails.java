@@ -0,0 +1,14 @@
+package com.areeba.challenge.customer.dto;
+
+/**
+ * Full view of a customer, as a repository projection the audit columns are not selected
+ * 
+ * @author Hussein Zaraket
+ */
+public interface CustomerDetails extends CustomerSummary {
+
+	String getAddress();
+
+	String getMobileNumber();
+
+}
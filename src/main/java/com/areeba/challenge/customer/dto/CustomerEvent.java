@@ -0,0 +1,91 @@
+package com.areeba.challenge.customer.dto;
+
+import java.util.Date;
+
+import com.areeba.challenge.customer.model.CustomerEventType;
+import com.areeba.challenge.customer.model.CustomerOutboxEvent;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+/**
+ * Customer change event published to the consumers, its id is the position of the event in the publish order
+ * and the cursor to be passed as "after" to get the next events
+ * 
+ * @author Hussein Zaraket
+ */
+public class CustomerEvent {
+
+	// position of the event in the publish order
+	private Long id;
+	// id of the changed customer
+	private Long customerId;
+	// type of the change
+	private CustomerEventType type;
+	// customer after the change, null when the customer is deleted or changed by a bulk patch
+	@JsonRawValue
+	private String customer;
+	// date of the change
+	private Date date;
+
+	public CustomerEvent() {
+
+	}
+
+	public CustomerEvent(Long id, Long customerId, CustomerEventType type, String customer, Date date) {
+		this.id = id;
+		this.customerId = customerId;
+		this.type = type;
+		this.customer = customer;
+		this.date = date;
+	}
+
+	/**
+	 * Return the event of the passed published outbox event, the customer json is sent as is
+	 * @param outboxEvent
+	 * @return
+	 */
+	public static CustomerEvent of(CustomerOutboxEvent outboxEvent) {
+		return new CustomerEvent(outboxEvent.getPublishSeq(), outboxEvent.getCustomerId(), outboxEvent.getType(), outboxEvent.getPayload(),
+				outboxEvent.getCreatedDate());
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public Long getCustomerId() {
+		return customerId;
+	}
+
+	public void setCustomerId(Long customerId) {
+		this.customerId = customerId;
+	}
+
+	public CustomerEventType getType() {
+		return type;
+	}
+
+	public void setType(CustomerEventType type) {
+		this.type = type;
+	}
+
+	public String getCustomer() {
+		return customer;
+	}
+
+	public void setCustomer(String customer) {
+		this.customer = customer;
+	}
+
+	public Date getDate() {
+		return date;
+	}
+
+	public void setDate(Date date) {
+		this.date = date;
+	}
+
+}
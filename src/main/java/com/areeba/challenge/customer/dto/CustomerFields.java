@@ -0,0 +1,46 @@
+package com.areeba.challenge.customer.dto;
+
+import com.areeba.challenge.customer.exception.InvalidRequestException;
+
+/**
+ * Customer fields returned by the list APIs, selected by the fields parameter
+ * 
+ * @author Hussein Zaraket
+ */
+public enum CustomerFields {
+
+	// id and name
+	SUMMARY(CustomerSummary.class),
+	// id, name, address and mobile number
+	FULL(CustomerDetails.class);
+
+	// repository projection selecting the columns of the fields
+	private final Class<? extends CustomerSummary> projection;
+
+	CustomerFields(Class<? extends CustomerSummary> projection) {
+		this.projection = projection;
+	}
+
+	public Class<? extends CustomerSummary> getProjection() {
+		return projection;
+	}
+
+	/**
+	 * Return the fields having the passed name ignoring case, full fields in case the name is empty
+	 * @param name
+	 * @return
+	 * @throws InvalidRequestException in case there is no such fields
+	 */
+	public static CustomerFields of(String name) throws InvalidRequestException {
+		if (null == name || name.isBlank()) {
+			return FULL;
+		}
+		for (CustomerFields fields : values()) {
+			if (fields.name().equalsIgnoreCase(name.trim())) {
+				return fields;
+			}
+		}
+		throw new InvalidRequestException("Fields should be summary or full.");
+	}
+
+}
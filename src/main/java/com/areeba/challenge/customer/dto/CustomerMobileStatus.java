@@ -0,0 +1,20 @@
+package com.areeba.challenge.customer.dto;
+
+import com.areeba.challenge.customer.model.MobileStatus;
+
+/**
+ * Validation status of the customer mobile number, as a repository projection only its columns are selected
+ * 
+ * @author Hussein Zaraket
+ */
+public interface CustomerMobileStatus {
+
+	Long getId();
+
+	String getMobileNumber();
+
+	MobileStatus getMobileStatus();
+
+	int getMobileValidationAttempts();
+
+}
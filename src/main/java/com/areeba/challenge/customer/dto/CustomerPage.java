@@ -0,0 +1,54 @@
+package com.areeba.challenge.customer.dto;
+
+import java.util.List;
+
+/**
+ * One page of customers returned by the keyset paginated API, with the cursor to be passed as "after" to get the next page.
+ * The content is either customer entities or customer projections
+ * 
+ * @author Hussein Zaraket
+ */
+public class CustomerPage<T> {
+
+	// customers of the current page ordered by id
+	private List<T> content;
+	// id of the last customer in the page, null when there is no more pages
+	private Long nextCursor;
+	// maximum number of customers requested per page
+	private int limit;
+
+	public CustomerPage() {
+
+	}
+
+	public CustomerPage(List<T> content, Long nextCursor, int limit) {
+		this.content = content;
+		this.nextCursor = nextCursor;
+		this.limit = limit;
+	}
+
+	public List<T> getContent() {
+		return content;
+	}
+
+	public void setContent(List<T> content) {
+		this.content = content;
+	}
+
+	public Long getNextCursor() {
+		return nextCursor;
+	}
+
+	public void setNextCursor(Long nextCursor) {
+		this.nextCursor = nextCursor;
+	}
+
+	public int getLimit() {
+		return limit;
+	}
+
+	public void setLimit(int limit) {
+		this.limit = limit;
+	}
+
+}
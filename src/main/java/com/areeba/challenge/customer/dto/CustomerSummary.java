@@ -0,0 +1,14 @@
+package com.areeba.challenge.customer.dto;
+
+/**
+ * Summary view of a customer, as a repository projection only the id and name columns are selected
+ * 
+ * @author Hussein Zaraket
+ */
+public interface CustomerSummary {
+
+	Long getId();
+
+	String getName();
+
+}
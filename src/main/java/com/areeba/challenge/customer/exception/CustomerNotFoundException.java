@@ -21,6 +21,10 @@ public class CustomerNotFoundException extends Exception{
 		super("Customer not found with id: " + customerId);
 	}
 
+	public CustomerNotFoundException(String field, String value) {
+		super("Customer not found with " + field + ": " + value);
+	}
+
 	public CustomerNotFoundException(Throwable cause) {
 		super(cause);
 	}
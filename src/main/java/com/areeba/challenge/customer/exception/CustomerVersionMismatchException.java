@@ -0,0 +1,17 @@
+package com.areeba.challenge.customer.exception;
+
+/**
+ * CustomerVersionMismatchException throws when updating a customer whose version is not the one expected by the client (If-Match),
+ * it's unchecked like the OptimisticLockingFailureException thrown when a concurrent update is detected while saving
+ * 
+ * @author Hussein Zaraket
+ */
+public class CustomerVersionMismatchException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public CustomerVersionMismatchException(Long customerId, String expectedVersion) {
+		super("Customer with id: " + customerId + " does not match the version: " + expectedVersion);
+	}
+
+}
@@ -0,0 +1,20 @@
+package com.areeba.challenge.customer.exception;
+
+/**
+ * MobileValidatorUnavailableException throws when the mobile validator is not called because it's failing or overloaded,
+ * or when the call itself fails like on a connection failure or a timeout
+ * 
+ * @author Hussein Zaraket
+ */
+public class MobileValidatorUnavailableException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public MobileValidatorUnavailableException() {
+		super("Mobile validator is unavailable, please try again later");
+	}
+
+	public MobileValidatorUnavailableException(Throwable cause) {
+		super("Mobile validator is unavailable, please try again later", cause);
+	}
+}
@@ -0,0 +1,90 @@
+package com.areeba.challenge.customer.metrics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Hibernate statement inspector counting the sql statements prepared by the current thread while a request counter is opened on
+ * it, registered by the hibernate.session_factory.statement_inspector property so the statements are left unchanged. Threads
+ * outside of a request, like the scheduled tasks, have no counter and their statements are not counted
+ * 
+ * @author Hussein Zaraket
+ */
+public class JdbcStatementCounter implements StatementInspector {
+
+	private static final long serialVersionUID = 1L;
+
+	// counter of the request the current thread works for, null when the thread does not work for a request
+	private static final ThreadLocal<AtomicInteger> STATEMENT_COUNT = new ThreadLocal<>();
+
+	@Override
+	public String inspect(String sql) {
+		AtomicInteger statementCount = STATEMENT_COUNT.get();
+		if (null != statementCount) {
+			statementCount.incrementAndGet();
+		}
+		return sql;
+	}
+
+	/**
+	 * Open a new counter on the current thread starting from 0 and return it
+	 * @return
+	 */
+	public static AtomicInteger reset() {
+		AtomicInteger statementCount = new AtomicInteger();
+		STATEMENT_COUNT.set(statementCount);
+		return statementCount;
+	}
+
+	/**
+	 * Count the statements of the current thread with the passed counter, opened by another thread working for the same request
+	 * @param statementCount
+	 */
+	public static void resume(AtomicInteger statementCount) {
+		STATEMENT_COUNT.set(statementCount);
+	}
+
+	/**
+	 * Return the number of statements counted by the counter of the current thread, 0 in case there is no counter
+	 * @return
+	 */
+	public static int getCount() {
+		AtomicInteger statementCount = STATEMENT_COUNT.get();
+		return null == statementCount ? 0 : statementCount.get();
+	}
+
+	/**
+	 * Remove the counter of the current thread
+	 */
+	public static void clear() {
+		STATEMENT_COUNT.remove();
+	}
+
+	/**
+	 * Return the passed task counting its statements with the counter of the thread submitting it, used as task decorator of the
+	 * executors running the work of the asynchronous requests
+	 * @param task
+	 * @return
+	 */
+	public static Runnable propagate(Runnable task) {
+		AtomicInteger statementCount = STATEMENT_COUNT.get();
+		if (null == statementCount) {
+			return task;
+		}
+		return () -> {
+			AtomicInteger previousCount = STATEMENT_COUNT.get();
+			STATEMENT_COUNT.set(statementCount);
+			try {
+				task.run();
+			} finally {
+				if (null == previousCount) {
+					STATEMENT_COUNT.remove();
+				} else {
+					STATEMENT_COUNT.set(previousCount);
+				}
+			}
+		};
+	}
+
+}
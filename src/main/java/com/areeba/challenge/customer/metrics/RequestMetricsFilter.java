@@ -0,0 +1,177 @@
+package com.areeba.challenge.customer.metrics;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.WebUtils;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Filter recording, per endpoint, the number of jdbc statements executed by the request and the size of its response.
+ * Asynchronous requests are recorded once their result is dispatched, their statements counted by the executor threads
+ * (see JdbcStatementCounter.propagate) with the counter kept as request attribute
+ * 
+ * @author Hussein Zaraket
+ */
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+	// request attribute holding the statements counter of an asynchronous request until its result is dispatched
+	private static final String STATEMENT_COUNT_ATTRIBUTE = RequestMetricsFilter.class.getName() + ".statementCount";
+
+	private final MeterRegistry meterRegistry;
+
+	public RequestMetricsFilter(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+	@Override
+	protected boolean shouldNotFilterAsyncDispatch() {
+		return false;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		// the async dispatch response may be the wrapper of the initial dispatch, its bytes are counted once
+		CountingResponseWrapper countingResponse = WebUtils.getNativeResponse(response, CountingResponseWrapper.class);
+		HttpServletResponse filteredResponse = response;
+		if (null == countingResponse) {
+			countingResponse = new CountingResponseWrapper(response);
+			filteredResponse = countingResponse;
+		}
+		Object asyncStatementCount = isAsyncDispatch(request) ? request.getAttribute(STATEMENT_COUNT_ATTRIBUTE) : null;
+		AtomicInteger statementCount;
+		if (asyncStatementCount instanceof AtomicInteger) {
+			statementCount = (AtomicInteger) asyncStatementCount;
+			JdbcStatementCounter.resume(statementCount);
+		} else {
+			statementCount = JdbcStatementCounter.reset();
+		}
+		try {
+			filterChain.doFilter(request, filteredResponse);
+		} finally {
+			if (request.isAsyncStarted()) {
+				request.setAttribute(STATEMENT_COUNT_ATTRIBUTE, statementCount);
+			} else {
+				Object uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+				String uriTag = null == uri ? "UNKNOWN" : uri.toString();
+				summary("http.server.requests.jdbc.statements", null, request, uriTag).record(statementCount.get());
+				summary("http.server.response.size", "bytes", request, uriTag).record(countingResponse.getByteCount());
+			}
+			JdbcStatementCounter.clear();
+		}
+	}
+
+	private DistributionSummary summary(String name, String baseUnit, HttpServletRequest request, String uri) {
+		return DistributionSummary.builder(name).baseUnit(baseUnit).tag("method", request.getMethod()).tag("uri", uri)
+				.publishPercentileHistogram().register(meterRegistry);
+	}
+
+	/**
+	 * Response wrapper counting the bytes written to the response output stream
+	 */
+	private static class CountingResponseWrapper extends HttpServletResponseWrapper {
+
+		private CountingOutputStream outputStream;
+
+		private PrintWriter writer;
+
+		CountingResponseWrapper(HttpServletResponse response) {
+			super(response);
+		}
+
+		@Override
+		public ServletOutputStream getOutputStream() throws IOException {
+			if (null == outputStream) {
+				outputStream = new CountingOutputStream(super.getOutputStream());
+			}
+			return outputStream;
+		}
+
+		@Override
+		public PrintWriter getWriter() throws IOException {
+			if (null == writer) {
+				writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+			}
+			return writer;
+		}
+
+		@Override
+		public void flushBuffer() throws IOException {
+			if (null != writer) {
+				writer.flush();
+			}
+			super.flushBuffer();
+		}
+
+		long getByteCount() {
+			if (null != writer) {
+				writer.flush();
+			}
+			return null == outputStream ? 0 : outputStream.byteCount;
+		}
+
+	}
+
+	/**
+	 * Servlet output stream delegating to the response one and counting the written bytes
+	 */
+	private static class CountingOutputStream extends ServletOutputStream {
+
+		private final ServletOutputStream delegate;
+
+		private long byteCount;
+
+		CountingOutputStream(ServletOutputStream delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			delegate.write(b);
+			byteCount++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			delegate.write(b, off, len);
+			byteCount += len;
+		}
+
+		@Override
+		public void flush() throws IOException {
+			delegate.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			delegate.close();
+		}
+
+		@Override
+		public boolean isReady() {
+			return delegate.isReady();
+		}
+
+		@Override
+		public void setWriteListener(WriteListener writeListener) {
+			delegate.setWriteListener(writeListener);
+		}
+
+	}
+
+}
@@ -1,44 +1,90 @@
 package com.areeba.challenge.customer.model;
 
+import java.util.Date;
 import java.util.Objects;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
-import javax.persistence.SequenceGenerator;
+import javax.persistence.Index;
 import javax.persistence.Table;
+import javax.persistence.Version;
+
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import com.areeba.challenge.customer.model.audit.Audit;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonProperty.Access;
 
 /**
- * Customer entity that contain all needed configuration to auto-create/update DB table once run and hold the needed data
+ * Customer entity mapped on the customer table created by the flyway migrations (db/migration) and hold the needed data,
+ * updates only contain the changed columns
  * 
  * @author Hussein Zaraket
  */
 @Entity
-@Table(name = "customer")
+@DynamicUpdate
+@Table(name = "customer", indexes = { @Index(name = Customer.MOBILE_NUMBER_INDEX, columnList = "mobile_number", unique = true),
+		@Index(name = "ix_customer_name", columnList = "name") })
 public class Customer extends Audit{
 
-	// id that will be auto-filled by the database sequence when a new customer instance is created
+	// name of the unique index of the mobile numbers, reported as the violated constraint when a mobile number is already used
+	public static final String MOBILE_NUMBER_INDEX = "ux_customer_mobile_number";
+
+	// id that will be auto-filled by the database sequence when a new customer instance is created,
+	// ids are allocated by blocks of increment_size with one sequence call per block (pooled-lo)
 	@Id
-	@SequenceGenerator(name = "customer_seq", initialValue = 1, allocationSize = 1)
-	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customr_seq")
+	@GenericGenerator(name = "customer_seq", strategy = "com.areeba.challenge.customer.model.generator.PooledSequenceIdGenerator", parameters = {
+			@Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "customer_seq"),
+			@Parameter(name = SequenceStyleGenerator.INITIAL_PARAM, value = "1"),
+			@Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "50"),
+			@Parameter(name = SequenceStyleGenerator.OPT_PARAM, value = "pooled-lo") })
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customer_seq")
 	@Column(name = "customer_id", length = 10)
 	private Long id;
 
 	// customer name
-	@Column(nullable = false, length = 30)
+	@Column(name = "name", nullable = false, length = 30)
 	private String name;
 
 	// customer address
 	@Column(length = 300)
 	private String address;
 
-	// customer mobile number
-	@Column(length = 30)
+	// customer mobile number, stored normalized and unique
+	@Column(name = "mobile_number", length = 30)
 	private String mobileNumber;
+
+	// validation status of the mobile number, set by the service only
+	@JsonProperty(access = Access.READ_ONLY)
+	@Enumerated(EnumType.STRING)
+	@Column(name = "mobile_status", nullable = false, length = 10)
+	private MobileStatus mobileStatus = MobileStatus.VALID;
+
+	// number of failed background validations of the mobile number
+	@JsonIgnore
+	@Column(name = "mobile_validation_attempts", nullable = false)
+	private int mobileValidationAttempts;
+
+	// date from which the pending mobile number can be validated in background, null to validate it as soon as possible
+	@JsonIgnore
+	@Column(name = "mobile_next_validation")
+	private Date mobileNextValidation;
+
+	// version incremented by every update, used for optimistic locking and as ETag of the customer
+	@JsonIgnore
+	@Version
+	@Column(name = "version", nullable = false)
+	private Long version;
 	
 	public Customer() {
 		
@@ -93,6 +139,54 @@ public class Customer extends Audit{
 		this.mobileNumber = mobileNumber;
 	}
 
+	public MobileStatus getMobileStatus() {
+		return mobileStatus;
+	}
+
+	public void setMobileStatus(MobileStatus mobileStatus) {
+		this.mobileStatus = mobileStatus;
+	}
+
+	public int getMobileValidationAttempts() {
+		return mobileValidationAttempts;
+	}
+
+	public void setMobileValidationAttempts(int mobileValidationAttempts) {
+		this.mobileValidationAttempts = mobileValidationAttempts;
+	}
+
+	public Date getMobileNextValidation() {
+		return mobileNextValidation;
+	}
+
+	public void setMobileNextValidation(Date mobileNextValidation) {
+		this.mobileNextValidation = mobileNextValidation;
+	}
+
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
+	/**
+	 * Return true in case the exception is caused by the violation of the unique index of the mobile numbers, the constraint name
+	 * being reported differently by each database it's matched ignoring case
+	 * @param e
+	 * @return
+	 */
+	public static boolean isMobileNumberViolation(Throwable e) {
+		for (Throwable cause = e; null != cause; cause = cause.getCause()) {
+			if (cause instanceof ConstraintViolationException) {
+				String constraintName = ((ConstraintViolationException) cause).getConstraintName();
+				return null != constraintName && constraintName.toLowerCase().contains(MOBILE_NUMBER_INDEX);
+			}
+		}
+		return false;
+	}
+
 	@Override
 	public int hashCode() {
 		return Objects.hash(address, id, mobileNumber, name);
@@ -0,0 +1,12 @@
+package com.areeba.challenge.customer.model;
+
+/**
+ * Type of the customer change events
+ * 
+ * @author Hussein Zaraket
+ */
+public enum CustomerEventType {
+
+	CREATED, UPDATED, DELETED
+
+}
@@ -0,0 +1,128 @@
+package com.areeba.challenge.customer.model;
+
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+
+import org.hibernate.annotations.DynamicUpdate;
+
+/**
+ * Customer change event stored in the outbox table in the same transaction as the change, until the relay publishes it.
+ * Only the columns changed by the relay are updated when it's published
+ * 
+ * @author Hussein Zaraket
+ */
+@Entity
+@DynamicUpdate
+@Table(name = "customer_outbox")
+public class CustomerOutboxEvent {
+
+	// event id, taken by blocks of 50 from the customer_outbox_seq sequence so the events of bulk changes are batch inserted,
+	// the ids do not follow the commit order so the consumers use the publish position instead
+	@Id
+	@SequenceGenerator(name = "customer_outbox_seq", sequenceName = "customer_outbox_seq", allocationSize = 50)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customer_outbox_seq")
+	@Column(name = "event_id")
+	private Long id;
+
+	// id of the changed customer
+	@Column(name = "customer_id", nullable = false)
+	private Long customerId;
+
+	// type of the change
+	@Enumerated(EnumType.STRING)
+	@Column(name = "event_type", nullable = false, length = 10)
+	private CustomerEventType type;
+
+	// customer as json after the change, null when the customer is deleted or changed by a bulk patch
+	@Column(name = "payload", length = 4000)
+	private String payload;
+
+	// date of the change
+	@Column(name = "created_date", nullable = false)
+	private Date createdDate;
+
+	// date the relay published the event, null until then
+	@Column(name = "published_date")
+	private Date publishedDate;
+
+	// position of the event in the publish order given by the relay, used as cursor by the consumers, null until published
+	@Column(name = "publish_seq")
+	private Long publishSeq;
+
+	public CustomerOutboxEvent() {
+
+	}
+
+	public CustomerOutboxEvent(Long customerId, CustomerEventType type, String payload) {
+		this.customerId = customerId;
+		this.type = type;
+		this.payload = payload;
+		this.createdDate = new Date();
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public Long getCustomerId() {
+		return customerId;
+	}
+
+	public void setCustomerId(Long customerId) {
+		this.customerId = customerId;
+	}
+
+	public CustomerEventType getType() {
+		return type;
+	}
+
+	public void setType(CustomerEventType type) {
+		this.type = type;
+	}
+
+	public String getPayload() {
+		return payload;
+	}
+
+	public void setPayload(String payload) {
+		this.payload = payload;
+	}
+
+	public Date getCreatedDate() {
+		return createdDate;
+	}
+
+	public void setCreatedDate(Date createdDate) {
+		this.createdDate = createdDate;
+	}
+
+	public Date getPublishedDate() {
+		return publishedDate;
+	}
+
+	public void setPublishedDate(Date publishedDate) {
+		this.publishedDate = publishedDate;
+	}
+
+	public Long getPublishSeq() {
+		return publishSeq;
+	}
+
+	public void setPublishSeq(Long publishSeq) {
+		this.publishSeq = publishSeq;
+	}
+
+}
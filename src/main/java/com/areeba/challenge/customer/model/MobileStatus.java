@@ -0,0 +1,17 @@
+package com.areeba.challenge.customer.model;
+
+/**
+ * Validation status of the customer mobile number
+ * 
+ * @author Hussein Zaraket
+ */
+public enum MobileStatus {
+
+	// waiting for the background validation
+	PENDING,
+	// validated by the mobile validator
+	VALID,
+	// rejected by the mobile validator
+	INVALID
+
+}
@@ -0,0 +1,31 @@
+package com.areeba.challenge.customer.model.generator;
+
+import java.util.Properties;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+/**
+ * Sequence id generator that allocate ids by blocks, so only one database round-trip is needed per block of inserts.
+ * The block size can be overridden by the hibernate setting hibernate.id.{sequence_name}.increment_size
+ * (spring.jpa.properties.hibernate.id.{sequence_name}.increment_size), it should always match the INCREMENT BY of the sequence
+ * 
+ * @author Hussein Zaraket
+ */
+public class PooledSequenceIdGenerator extends SequenceStyleGenerator {
+
+	@Override
+	public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+		String sequenceName = params.getProperty(SEQUENCE_PARAM);
+		Object incrementSize = serviceRegistry.getService(ConfigurationService.class).getSettings()
+				.get("hibernate.id." + sequenceName + ".increment_size");
+		if (null != incrementSize) {
+			params.setProperty(INCREMENT_PARAM, incrementSize.toString());
+		}
+		super.configure(type, params, serviceRegistry);
+	}
+
+}
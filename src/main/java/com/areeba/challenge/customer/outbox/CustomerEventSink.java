@@ -0,0 +1,22 @@
+package com.areeba.challenge.customer.outbox;
+
+import java.util.List;
+
+import com.areeba.challenge.customer.dto.CustomerEvent;
+
+/**
+ * Destination of the customer change events published by the outbox relay, every sink bean receives all the events.
+ * A message broker is plugged by declaring a bean implementing this interface
+ * 
+ * @author Hussein Zaraket
+ */
+public interface CustomerEventSink {
+
+	/**
+	 * Publish the passed events ordered by id. Throwing an exception keeps the events in the outbox so they are published again
+	 * by the next relay run, so the events are delivered at least once and consumers should ignore the already received ids
+	 * @param events
+	 */
+	void publish(List<CustomerEvent> events);
+
+}
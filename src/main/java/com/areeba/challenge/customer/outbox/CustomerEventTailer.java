@@ -0,0 +1,69 @@
+package com.areeba.challenge.customer.outbox;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.areeba.challenge.customer.dto.CustomerEvent;
+import com.areeba.challenge.customer.model.CustomerOutboxEvent;
+import com.areeba.challenge.customer.repository.CustomerOutboxRepository;
+
+/**
+ * Background reader of the events published in the outbox table by the relay of any instance, in the order of their positions.
+ * The read events are delivered to the server-sent events streams and long-polling requests of this instance
+ * 
+ * @author Hussein Zaraket
+ */
+@Component
+public class CustomerEventTailer {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(CustomerEventTailer.class);
+
+	@Autowired
+	private CustomerOutboxRepository customerOutboxRepository;
+
+	@Autowired
+	private LocalCustomerEventSink localCustomerEventSink;
+
+	// maximum number of events read at once
+	@Value("${customer.events.tailBatchSize:500}")
+	private int batchSize;
+
+	// position of the last delivered event, null until the first run
+	private Long lastPublishSeq;
+
+	/**
+	 * Deliver the events published since the last run, one batch per run. The first run starts from the last published event,
+	 * the streams only receive the events published from then
+	 */
+	@Scheduled(fixedDelayString = "${customer.events.tailDelay:500}")
+	public void tail() {
+		try {
+			if (null == lastPublishSeq) {
+				lastPublishSeq = customerOutboxRepository.findLastPublishSeq().orElse(0L);
+				return;
+			}
+			List<CustomerOutboxEvent> outboxEvents = customerOutboxRepository
+					.findByPublishSeqGreaterThanOrderByPublishSeqAsc(lastPublishSeq, PageRequest.of(0, batchSize));
+			if (outboxEvents.isEmpty()) {
+				return;
+			}
+			List<CustomerEvent> events = new ArrayList<>(outboxEvents.size());
+			for (CustomerOutboxEvent outboxEvent : outboxEvents) {
+				events.add(CustomerEvent.of(outboxEvent));
+			}
+			localCustomerEventSink.publish(events);
+			lastPublishSeq = events.get(events.size() - 1).getId();
+		} catch (RuntimeException e) {
+			LOGGER.warn("Customer events not delivered, they will be delivered by the next run", e);
+		}
+	}
+
+}
@@ -0,0 +1,114 @@
+package com.areeba.challenge.customer.outbox;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.areeba.challenge.customer.dto.CustomerEvent;
+import com.areeba.challenge.customer.model.CustomerOutboxEvent;
+import com.areeba.challenge.customer.repository.CustomerOutboxRepository;
+
+/**
+ * Background relay publishing the customer change events of the outbox by batches, in the order of their ids.
+ * Each batch is locked, given its publish positions, published to the sinks and marked as published in one transaction, so a failing
+ * sink makes the batch published again by the next run. Only one relay runs at a time across the instances, holding the relay lock
+ * until its transaction commits, so the publish positions follow the commit order and a consumer reading after a position never
+ * misses an event published later. Enabled by customer.outbox.relay.enabled property
+ * 
+ * @author Hussein Zaraket
+ */
+@Component
+@ConditionalOnProperty(name = "customer.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class CustomerOutboxRelay {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(CustomerOutboxRelay.class);
+
+	// key of the postgres advisory lock held by the running relay
+	private static final long RELAY_LOCK_KEY = 0x637573746f6d6572L;
+
+	@Autowired
+	private CustomerOutboxRepository customerOutboxRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	// external sinks receiving the events, none by default as the consumers read them from the outbox table
+	@Autowired(required = false)
+	private List<CustomerEventSink> sinks = Collections.emptyList();
+
+	// maximum number of events published at once
+	@Value("${customer.outbox.relay.batchSize:500}")
+	private int batchSize;
+
+	// time the published events are kept, so the consumers can catch up with the events API
+	@Value("${customer.outbox.retention:7d}")
+	private Duration retention;
+
+	/**
+	 * Publish the events of the outbox until no full batch remains
+	 */
+	@Scheduled(fixedDelayString = "${customer.outbox.relay.delay:500}")
+	public void relay() {
+		try {
+			Integer published;
+			do {
+				published = transactionTemplate.execute(status -> relayBatch());
+			} while (null != published && published == batchSize);
+		} catch (RuntimeException e) {
+			LOGGER.warn("Customer events not published, they will be published by the next run", e);
+		}
+	}
+
+	/**
+	 * Delete the events published before the retention
+	 */
+	@Scheduled(fixedDelayString = "${customer.outbox.cleanup.delay:3600000}")
+	public void cleanup() {
+		customerOutboxRepository.deletePublishedBefore(new Date(System.currentTimeMillis() - retention.toMillis()));
+	}
+
+	/**
+	 * Publish one batch of events, should be called inside a transaction. The published date and position of the events are saved
+	 * when the transaction commits
+	 * @return the number of published events, 0 in case another relay is running
+	 */
+	private int relayBatch() {
+		if (!customerOutboxRepository.tryRelayLock(RELAY_LOCK_KEY)) {
+			return 0;
+		}
+		List<CustomerOutboxEvent> outboxEvents = customerOutboxRepository.findUnpublishedForUpdate(batchSize);
+		if (outboxEvents.isEmpty()) {
+			return 0;
+		}
+		// the positions are given in the order of the event ids
+		List<Long> publishSeqs = new ArrayList<>(outboxEvents.size());
+		for (Number publishSeq : customerOutboxRepository.nextPublishSeqs(outboxEvents.size())) {
+			publishSeqs.add(publishSeq.longValue());
+		}
+		Collections.sort(publishSeqs);
+		Date publishedDate = new Date();
+		List<CustomerEvent> events = new ArrayList<>(outboxEvents.size());
+		for (int i = 0; i < outboxEvents.size(); i++) {
+			CustomerOutboxEvent outboxEvent = outboxEvents.get(i);
+			outboxEvent.setPublishSeq(publishSeqs.get(i));
+			outboxEvent.setPublishedDate(publishedDate);
+			events.add(CustomerEvent.of(outboxEvent));
+		}
+		for (CustomerEventSink sink : sinks) {
+			sink.publish(events);
+		}
+		return outboxEvents.size();
+	}
+
+}
@@ -0,0 +1,112 @@
+package com.areeba.challenge.customer.outbox;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.areeba.challenge.customer.dto.CustomerEvent;
+
+/**
+ * Sink delivering the published events to the consumers connected to this instance, through server-sent events streams
+ * and long-polling requests waiting for new events. It's fed by the CustomerEventTailer of this instance reading the outbox table,
+ * so the consumers receive the events whatever the instance that relayed them
+ * 
+ * @author Hussein Zaraket
+ */
+@Component
+public class LocalCustomerEventSink {
+
+	// open server-sent events streams
+	private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+
+	// long-polling requests waiting for events
+	private final Queue<PendingPoll> pendingPolls = new ConcurrentLinkedQueue<>();
+
+	// time a server-sent events stream is kept open before the client has to reconnect
+	@Value("${customer.events.streamTimeout:30m}")
+	private Duration streamTimeout;
+
+	/**
+	 * Open a server-sent events stream receiving the events published from now
+	 * @return
+	 */
+	public SseEmitter subscribe() {
+		SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+		emitter.onCompletion(() -> emitters.remove(emitter));
+		emitter.onTimeout(emitter::complete);
+		emitter.onError(e -> emitters.remove(emitter));
+		emitters.add(emitter);
+		return emitter;
+	}
+
+	/**
+	 * Complete the passed result with the next published events having position greater than the passed one
+	 * @param after
+	 * @param limit maximum number of events in the result
+	 * @param result
+	 */
+	public void poll(long after, int limit, DeferredResult<List<CustomerEvent>> result) {
+		PendingPoll pendingPoll = new PendingPoll(after, limit, result);
+		result.onCompletion(() -> pendingPolls.remove(pendingPoll));
+		pendingPolls.add(pendingPoll);
+	}
+
+	/**
+	 * Deliver the passed events, ordered by position, to the open streams and the waiting long-polling requests
+	 * @param events
+	 */
+	public void publish(List<CustomerEvent> events) {
+		for (SseEmitter emitter : emitters) {
+			try {
+				for (CustomerEvent event : events) {
+					emitter.send(SseEmitter.event().id(String.valueOf(event.getId())).name(event.getType().name())
+							.data(event, MediaType.APPLICATION_JSON));
+				}
+			} catch (IOException | IllegalStateException e) {
+				// the client is gone, it will reconnect and catch up with the events API
+				emitters.remove(emitter);
+			}
+		}
+		for (PendingPoll pendingPoll : pendingPolls) {
+			List<CustomerEvent> newEvents = new ArrayList<>();
+			for (CustomerEvent event : events) {
+				if (event.getId() > pendingPoll.after && newEvents.size() < pendingPoll.limit) {
+					newEvents.add(event);
+				}
+			}
+			if (!newEvents.isEmpty()) {
+				pendingPoll.result.setResult(newEvents);
+			}
+		}
+	}
+
+	/**
+	 * Long-polling request waiting for the events after its cursor
+	 */
+	private static class PendingPoll {
+
+		private final long after;
+
+		private final int limit;
+
+		private final DeferredResult<List<CustomerEvent>> result;
+
+		PendingPoll(long after, int limit, DeferredResult<List<CustomerEvent>> result) {
+			this.after = after;
+			this.limit = limit;
+			this.result = result;
+		}
+
+	}
+
+}
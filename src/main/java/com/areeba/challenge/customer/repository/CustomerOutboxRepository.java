@@ -0,0 +1,75 @@
+package com.areeba.challenge.customer.repository;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.areeba.challenge.customer.model.CustomerOutboxEvent;
+
+/**
+ * Repository of the customer change events outbox
+ * 
+ * @author Hussein Zaraket
+ */
+public interface CustomerOutboxRepository extends JpaRepository<CustomerOutboxEvent, Long> {
+
+	/**
+	 * Take the relay lock until the end of the current transaction, so only one relay publishes at a time and the publish positions
+	 * follow the commit order. Should be called inside a transaction
+	 * @param key key of the postgres advisory lock
+	 * @return false in case another relay holds the lock
+	 */
+	@Query(value = "select pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+	boolean tryRelayLock(@Param("key") long key);
+
+	/**
+	 * Lock and return the oldest events not published yet, the events locked by another transaction are skipped.
+	 * Should be called inside a transaction holding the relay lock
+	 * @param limit
+	 * @return
+	 */
+	@Query(value = "select * from customer_outbox where published_date is null order by event_id limit :limit for update skip locked",
+			nativeQuery = true)
+	List<CustomerOutboxEvent> findUnpublishedForUpdate(@Param("limit") int limit);
+
+	/**
+	 * Return the next publish positions, one by one from the customer_outbox_publish_seq sequence
+	 * @param count
+	 * @return
+	 */
+	@Query(value = "select nextval('customer_outbox_publish_seq') from generate_series(1, :count)", nativeQuery = true)
+	List<Number> nextPublishSeqs(@Param("count") int count);
+
+	/**
+	 * Return the published events having a publish position greater than the passed one ordered by position, the pageable is only
+	 * used to limit the rows
+	 * @param publishSeq
+	 * @param pageable
+	 * @return
+	 */
+	List<CustomerOutboxEvent> findByPublishSeqGreaterThanOrderByPublishSeqAsc(Long publishSeq, Pageable pageable);
+
+	/**
+	 * Return the position of the last published event
+	 * @return
+	 */
+	@Query("select max(e.publishSeq) from CustomerOutboxEvent e")
+	Optional<Long> findLastPublishSeq();
+
+	/**
+	 * Delete the events published before the passed date
+	 * @param date
+	 * @return the number of deleted events
+	 */
+	@Transactional
+	@Modifying
+	@Query("delete from CustomerOutboxEvent e where e.publishedDate < :date")
+	int deletePublishedBefore(@Param("date") Date date);
+}
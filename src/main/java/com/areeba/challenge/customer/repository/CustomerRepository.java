@@ -1,7 +1,25 @@
 package com.areeba.challenge.customer.repository;
 
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.areeba.challenge.customer.dto.CustomerMobileStatus;
 import com.areeba.challenge.customer.model.Customer;
 
 /**
@@ -9,5 +27,132 @@ import com.areeba.challenge.customer.model.Customer;
  * 
  * @author Hussein Zaraket
  */
-public interface CustomerRepository extends JpaRepository<Customer, Long> {
+public interface CustomerRepository extends JpaRepository<Customer, Long>, CustomerRepositoryCustom {
+
+	/**
+	 * Return the customers having id greater than the passed one ordered by id, the pageable is only used to limit the rows
+	 * so the query is an index range scan on the primary key (customer_id > ? order by customer_id limit ?).
+	 * Customers are returned as the passed projection so only its columns are selected
+	 * @param <T>
+	 * @param id
+	 * @param pageable
+	 * @param type projection interface
+	 * @return
+	 */
+	<T> List<T> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable, Class<T> type);
+
+	/**
+	 * Stream all the customers ordered by id, rows are fetched from the database cursor in chunks of the fetch size
+	 * instead of being loaded all at once, so it should be consumed inside a read only transaction and closed after usage
+	 * @return
+	 */
+	@QueryHints({ @QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READONLY, value = "true") })
+	@Query("select c from Customer c order by c.id")
+	Stream<Customer> streamAllByOrderByIdAsc();
+
+	/**
+	 * Return the customer having the passed normalized mobile number, using the unique mobile number index
+	 * @param mobileNumber
+	 * @return
+	 */
+	Optional<Customer> findByMobileNumber(String mobileNumber);
+
+	/**
+	 * Return the customers having a name starting with the passed prefix ordered by name, using the name index.
+	 * The pageable is used as offset and limit only, no count query is executed.
+	 * Customers are returned as the passed projection so only its columns are selected
+	 * @param <T>
+	 * @param prefix
+	 * @param pageable
+	 * @param type projection interface
+	 * @return
+	 */
+	<T> List<T> findByNameStartingWithOrderByNameAscIdAsc(String prefix, Pageable pageable, Class<T> type);
+
+	/**
+	 * Return the version of the customer having the passed id without loading the customer
+	 * @param id
+	 * @return
+	 */
+	@Query("select c.version from Customer c where c.id = :id")
+	Optional<Long> findVersionById(@Param("id") Long id);
+
+	/**
+	 * Return the mobile number validation status of the customer having the passed id, without loading the customer
+	 * @param id
+	 * @return
+	 */
+	Optional<CustomerMobileStatus> findMobileStatusById(Long id);
+
+	/**
+	 * Lock and return the customers having a pending mobile number due for validation, the customers locked by another worker
+	 * are skipped so many instances can validate at the same time. Should be called inside a transaction
+	 * @param now
+	 * @param limit
+	 * @return
+	 */
+	@Query(value = "select * from customer where mobile_status = 'PENDING' and (mobile_next_validation is null or mobile_next_validation <= :now)"
+			+ " order by customer_id limit :limit for update skip locked", nativeQuery = true)
+	List<Customer> findPendingMobileForUpdate(@Param("now") Date now, @Param("limit") int limit);
+
+	/**
+	 * Set the next validation date of the pending mobile numbers of the customers having the passed ids, without changing their version
+	 * @param ids
+	 * @param nextValidation
+	 * @return the number of updated customers
+	 */
+	@Modifying
+	@Query("update Customer c set c.mobileNextValidation = :nextValidation"
+			+ " where c.id in :ids and c.mobileStatus = com.areeba.challenge.customer.model.MobileStatus.PENDING")
+	int deferPendingMobile(@Param("ids") Collection<Long> ids, @Param("nextValidation") Date nextValidation);
+
+	/**
+	 * Count a failed validation of the pending mobile number of the customer and set when it's validated again, nothing is updated
+	 * in case the mobile number was changed or is not pending anymore
+	 * @param id
+	 * @param mobileNumber mobile number that failed to be validated
+	 * @param nextValidation
+	 * @return the number of updated customers
+	 */
+	@Transactional
+	@Modifying
+	@Query("update Customer c set c.mobileValidationAttempts = c.mobileValidationAttempts + 1, c.mobileNextValidation = :nextValidation"
+			+ " where c.id = :id and c.mobileNumber = :mobileNumber and c.mobileStatus = com.areeba.challenge.customer.model.MobileStatus.PENDING")
+	int retryPendingMobile(@Param("id") Long id, @Param("mobileNumber") String mobileNumber, @Param("nextValidation") Date nextValidation);
+
+	/**
+	 * Return the ids, among the passed ones, that belong to existing customers
+	 * @param ids
+	 * @return
+	 */
+	@Query("select c.id from Customer c where c.id in :ids")
+	List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+	/**
+	 * Return the mobile numbers, among the passed normalized ones, that are already used by existing customers
+	 * @param mobileNumbers
+	 * @return
+	 */
+	@Query("select c.mobileNumber from Customer c where c.mobileNumber in :mobileNumbers")
+	List<String> findExistingMobileNumbers(@Param("mobileNumbers") Collection<String> mobileNumbers);
+
+	/**
+	 * Delete the customer having the passed id with a single delete statement
+	 * @param id
+	 * @return the number of deleted customers, 0 in case there is no such customer
+	 */
+	@Transactional
+	@Modifying
+	@Query("delete from Customer c where c.id = :id")
+	int deleteCustomerById(@Param("id") Long id);
+
+	/**
+	 * Delete all the customers having the passed ids with a single delete statement
+	 * @param ids
+	 * @return the number of deleted customers
+	 */
+	@Transactional
+	@Modifying
+	@Query("delete from Customer c where c.id in :ids")
+	int deleteCustomersByIds(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,20 @@
+package com.areeba.challenge.customer.repository;
+
+import java.util.Collection;
+
+/**
+ * Customer repository operations that cannot be expressed as a query method, implemented by CustomerRepositoryCustomImpl
+ * 
+ * @author Hussein Zaraket
+ */
+public interface CustomerRepositoryCustom {
+
+	/**
+	 * Set the not null fields on all the customers having the passed ids with a single update statement
+	 * @param ids
+	 * @param name
+	 * @param address
+	 * @return the number of updated customers
+	 */
+	int patchByIds(Collection<Long> ids, String name, String address);
+}
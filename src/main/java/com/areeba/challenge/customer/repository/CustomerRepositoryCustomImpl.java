@@ -0,0 +1,45 @@
+package com.areeba.challenge.customer.repository;
+
+import java.util.Collection;
+import java.util.Date;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Root;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import com.areeba.challenge.customer.model.Customer;
+
+/**
+ * Implementation of the custom customer repository operations
+ * 
+ * @author Hussein Zaraket
+ */
+public class CustomerRepositoryCustomImpl implements CustomerRepositoryCustom {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	@Transactional
+	public int patchByIds(Collection<Long> ids, String name, String address) {
+		CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+		CriteriaUpdate<Customer> update = builder.createCriteriaUpdate(Customer.class);
+		Root<Customer> customer = update.from(Customer.class);
+		if (null != name) {
+			update.set(customer.<String>get("name"), name);
+		}
+		if (null != address) {
+			update.set(customer.<String>get("address"), address);
+		}
+		// bulk updates do not call the entity listeners nor increment the version, so they are set here
+		update.set(customer.<Date>get("updatedDate"), new Date());
+		update.set(customer.<Long>get("version"), builder.sum(customer.<Long>get("version"), 1L));
+		update.where(customer.get("id").in(ids));
+		return entityManager.createQuery(update).executeUpdate();
+	}
+
+}
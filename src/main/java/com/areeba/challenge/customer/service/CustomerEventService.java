@@ -0,0 +1,79 @@
+package com.areeba.challenge.customer.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import com.areeba.challenge.customer.dto.CustomerEvent;
+import com.areeba.challenge.customer.exception.InvalidRequestException;
+import com.areeba.challenge.customer.model.CustomerOutboxEvent;
+import com.areeba.challenge.customer.repository.CustomerOutboxRepository;
+
+/**
+ * Customer event service(in service layer) that expose the published customer change events to the consumers
+ * 
+ * @author Hussein Zaraket
+ */
+@Service
+public class CustomerEventService {
+
+	@Autowired
+	private CustomerOutboxRepository customerOutboxRepository;
+
+	// default number of events returned by the events API
+	@Value("${customer.page.defaultLimit:50}")
+	private int defaultLimit;
+
+	// maximum number of events that can be requested at once
+	@Value("${customer.page.maxLimit:500}")
+	private int maxLimit;
+
+	/**
+	 * Return the published events having position greater than the passed cursor, ordered by position
+	 * @param after position (id) of the last event already received, 0 to start from the oldest kept event
+	 * @param limit maximum number of events, should be checked by checkLimit
+	 * @return
+	 */
+	public List<CustomerEvent> getEvents(long after, int limit) {
+		List<CustomerOutboxEvent> outboxEvents = customerOutboxRepository
+				.findByPublishSeqGreaterThanOrderByPublishSeqAsc(after, PageRequest.of(0, limit));
+		List<CustomerEvent> events = new ArrayList<>(outboxEvents.size());
+		for (CustomerOutboxEvent outboxEvent : outboxEvents) {
+			events.add(CustomerEvent.of(outboxEvent));
+		}
+		return events;
+	}
+
+	/**
+	 * Return the events cursor, 0 when not passed
+	 * @param after
+	 * @return
+	 * @throws InvalidRequestException in case the cursor is negative
+	 */
+	public long checkCursor(Long after) throws InvalidRequestException {
+		long cursor = null == after ? 0L : after;
+		if (cursor < 0) {
+			throw new InvalidRequestException("After cursor cannot be negative.");
+		}
+		return cursor;
+	}
+
+	/**
+	 * Return the maximum number of events, the default one when not passed
+	 * @param limit
+	 * @return
+	 * @throws InvalidRequestException in case the limit is out of range
+	 */
+	public int checkLimit(Integer limit) throws InvalidRequestException {
+		int eventsLimit = null == limit ? defaultLimit : limit;
+		if (eventsLimit < 1 || eventsLimit > maxLimit) {
+			throw new InvalidRequestException("Limit should be between 1 and " + maxLimit + ".");
+		}
+		return eventsLimit;
+	}
+
+}
@@ -1,52 +1,200 @@
 package com.areeba.challenge.customer.service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.areeba.challenge.customer.config.CacheConfig;
+import com.areeba.challenge.customer.dto.BulkCreateResult;
+import com.areeba.challenge.customer.dto.BulkMutationResult;
+import com.areeba.challenge.customer.dto.BulkPatchRequest;
+import com.areeba.challenge.customer.dto.CustomerFields;
+import com.areeba.challenge.customer.dto.CustomerMobileStatus;
+import com.areeba.challenge.customer.dto.CustomerPage;
+import com.areeba.challenge.customer.dto.CustomerSummary;
 import com.areeba.challenge.customer.exception.CustomerNotFoundException;
+import com.areeba.challenge.customer.exception.CustomerVersionMismatchException;
 import com.areeba.challenge.customer.exception.InvalidMobileException;
 import com.areeba.challenge.customer.exception.InvalidRequestException;
+import com.areeba.challenge.customer.exception.MobileValidatorUnavailableException;
 import com.areeba.challenge.customer.model.Customer;
+import com.areeba.challenge.customer.model.CustomerEventType;
+import com.areeba.challenge.customer.model.CustomerOutboxEvent;
+import com.areeba.challenge.customer.model.MobileStatus;
+import com.areeba.challenge.customer.repository.CustomerOutboxRepository;
 import com.areeba.challenge.customer.repository.CustomerRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import io.micrometer.core.annotation.Timed;
 
 /**
- * Customer service(in service layer) that expose CRUD operations for customer
+ * Customer service(in service layer) that expose CRUD operations for customer, the read only operations run in read only
+ * transactions so they are sent to the replicas when customer.datasource.routing.enabled is set
  * 
  * @author Hussein Zaraket
  */
 @Service
 public class CustomerService {
 
+	// timer of the customer service methods, tagged by class and method
+	private static final String SERVICE_TIMER = "customer.service";
+
+	// failure message of the bulk created customers having a mobile number already used by an existing customer
+	private static final String MOBILE_CONFLICT_MESSAGE = "Customer conflicts with an existing customer, mobile number should be unique";
+
 	@Autowired
 	private CustomerRepository customerRepository;
 
 	@Autowired
 	private MobileNumberService mobileService;
 
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	// outbox of the customer change events, written in the same transaction as the changes
+	@Autowired
+	private CustomerOutboxRepository customerOutboxRepository;
+
+	// used to save a customer and its change event in one transaction, the mobile number validation staying out of it
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	// executor used to validate the mobile numbers of a bulk create concurrently
+	@Autowired
+	@Qualifier("mobileValidationExecutor")
+	private Executor mobileValidationExecutor;
+
+	// sync validates the mobile number before saving the customer, async saves it as pending to be validated in background
+	@Value("${mobileValidator.mode:sync}")
+	private String mobileValidatorMode;
+
+	// number of customers returned per page when no limit is passed
+	@Value("${customer.page.defaultLimit:50}")
+	private int defaultPageLimit;
+
+	// maximum number of customers that can be requested in one page
+	@Value("${customer.page.maxLimit:500}")
+	private int maxPageLimit;
+
+	// maximum number of customers that can be created in one bulk request
+	@Value("${customer.bulk.maxSize:10000}")
+	private int maxBulkSize;
+
+	// number of customers saved in the same transaction by a bulk create
+	@Value("${customer.bulk.chunkSize:500}")
+	private int bulkChunkSize;
+
 	/**
-	 * Return all customers from DB by repository
+	 * Return a page of customers having id greater than the passed cursor, ordered by id.
+	 * The next page is requested by passing the returned nextCursor, which will be null once the last page is reached
+	 * @param after id of the last customer already retrieved, null or 0 to start from the beginning
+	 * @param limit maximum number of customers in the page, null to use the default one
+	 * @param fields fields of the returned customers, only their columns are read
 	 * @return
+	 * @throws InvalidRequestException in case the cursor is negative or the limit is out of range
 	 */
-	public List<Customer> getAllCustomers() {
-		return customerRepository.findAll();
+	@Timed(value = SERVICE_TIMER, histogram = true)
+	@Transactional(readOnly = true)
+	public CustomerPage<CustomerSummary> getCustomersPage(Long after, Integer limit, CustomerFields fields) throws InvalidRequestException {
+		long cursor = null == after ? 0L : after;
+		if (cursor < 0) {
+			throw new InvalidRequestException("After cursor cannot be negative.");
+		}
+		int pageLimit = null == limit ? defaultPageLimit : limit;
+		if (pageLimit < 1 || pageLimit > maxPageLimit) {
+			throw new InvalidRequestException("Limit should be between 1 and " + maxPageLimit + ".");
+		}
+		List<CustomerSummary> customers = Collections.unmodifiableList(
+				customerRepository.findByIdGreaterThanOrderByIdAsc(cursor, PageRequest.of(0, pageLimit), fields.getProjection()));
+		// a full page means there may be more customers after the last one
+		Long nextCursor = customers.size() < pageLimit ? null : customers.get(customers.size() - 1).getId();
+		return new CustomerPage<>(customers, nextCursor, pageLimit);
 	}
 
 	/**
-	 * Return customer by id
+	 * Write all customers to the passed output stream as newline delimited json, one customer per line.
+	 * Customers are read from a database cursor and detached once written, so the memory used is the same whatever the table size
+	 * @param out
+	 * @throws IOException in case writing to the output stream failed
+	 */
+	@Timed(value = SERVICE_TIMER, histogram = true)
+	@Transactional(readOnly = true)
+	public void exportCustomers(OutputStream out) throws IOException {
+		ObjectWriter writer = objectMapper.writerFor(Customer.class);
+		try (Stream<Customer> customers = customerRepository.streamAllByOrderByIdAsc()) {
+			Iterator<Customer> iterator = customers.iterator();
+			while (iterator.hasNext()) {
+				Customer customer = iterator.next();
+				out.write(writer.writeValueAsBytes(customer));
+				out.write('\n');
+				// remove the written customer from the persistence context so it can be garbage collected
+				entityManager.detach(customer);
+			}
+		}
+		out.flush();
+	}
+
+	/**
+	 * Return customer by id, the customer is cached once loaded until it is updated or deleted.
+	 * No transaction is started for the cached customers, the other ones are loaded from the primary in a read write transaction
+	 * as a replica may still have a stale or deleted customer that would stay cached
 	 * @param id
 	 * @return
 	 * @throws CustomerNotFoundException in case there is not customer with such id
 	 * @throws InvalidRequestException in case the id is less than or equal 0(invalid)
 	 */
+	@Timed(value = SERVICE_TIMER, histogram = true)
+	@Cacheable(cacheNames = CacheConfig.CUSTOMERS_CACHE, key = "#id", condition = "#id != null")
 	public Customer getCustomerById(Long id) throws CustomerNotFoundException, InvalidRequestException {
 		if(null == id || id < 1) 
 		{
 			throw new InvalidRequestException("Id cannot be null.");
 		}
-		Optional<Customer> customer = customerRepository.findById(id);
+		Optional<Customer> customer = transactionTemplate.execute(status -> customerRepository.findById(id));
 		if (customer.isPresent()) {
 			return customer.get();
 		} else {
@@ -55,19 +203,268 @@ public class CustomerService {
 	}
 
 	/**
-	 * Create a new customer and return it
+	 * Return the version of the customer having the passed id, taken from the cached customer when present
+	 * else read alone from the primary in a read write transaction without loading the customer, so the conditional requests
+	 * are never answered against the stale version of a replica
+	 * @param id
+	 * @return the version, null in case there is no such customer
+	 */
+	@Timed(value = SERVICE_TIMER, histogram = true)
+	public Long getCustomerVersion(Long id) {
+		if (null == id || id < 1) {
+			return null;
+		}
+		Cache cache = cacheManager.getCache(CacheConfig.CUSTOMERS_CACHE);
+		Customer cachedCustomer = null == cache ? null : cache.get(id, Customer.class);
+		if (null != cachedCustomer && null != cachedCustomer.getVersion()) {
+			return cachedCustomer.getVersion();
+		}
+		return transactionTemplate.execute(status -> customerRepository.findVersionById(id)).orElse(null);
+	}
+
+	/**
+	 * Return the validation status of the mobile number of the customer having the passed id
+	 * @param id
+	 * @return
+	 * @throws CustomerNotFoundException in case there is not customer with such id
+	 * @throws InvalidRequestException in case the id is less than or equal 0(invalid)
+	 */
+	@Timed(value = SERVICE_TIMER, histogram = true)
+	@Transactional(readOnly = true)
+	public CustomerMobileStatus getMobileStatus(Long id) throws CustomerNotFoundException, InvalidRequestException {
+		if (null == id || id < 1) {
+			throw new InvalidRequestException("Id cannot be null.");
+		}
+		Optional<CustomerMobileStatus> mobileStatus = customerRepository.findMobileStatusById(id);
+		if (mobileStatus.isPresent()) {
+			return mobileStatus.get();
+		} else {
+			throw new CustomerNotFoundException(id);
+		}
+	}
+
+	/**
+	 * Return the customer having the passed mobile number, the mobile number is normalized before the lookup
+	 * @param mobileNumber
+	 * @return
+	 * @throws CustomerNotFoundException in case there is no customer with such mobile number
+	 * @throws InvalidRequestException in case the mobile number is empty
+	 */
+	@Timed(value = SERVICE_TIMER, histogram = true)
+	@Transactional(readOnly = true)
+	public Customer getCustomerByMobileNumber(String mobileNumber) throws CustomerNotFoundException, InvalidRequestException {
+		String normalizedMobile = MobileNumberService.normalize(mobileNumber);
+		if (null == normalizedMobile) {
+			throw new InvalidRequestException("Mobile number cannot be empty.");
+		}
+		Optional<Customer> customer = customerRepository.findByMobileNumber(normalizedMobile);
+		if (customer.isPresent()) {
+			return customer.get();
+		} else {
+			throw new CustomerNotFoundException("mobile number", mobileNumber);
+		}
+	}
+
+	/**
+	 * Return a page of the customers having a name starting with the passed prefix, ordered by name
+	 * @param prefix
+	 * @param page index of the page starting from 0, null for the first page
+	 * @param size maximum number of customers in the page, null to use the default one
+	 * @param fields fields of the returned customers, only their columns are read
+	 * @return
+	 * @throws InvalidRequestException in case the prefix is empty or the page or size is out of range
+	 */
+	@Timed(value = SERVICE_TIMER, histogram = true)
+	@Transactional(readOnly = true)
+	public List<CustomerSummary> searchCustomersByName(String prefix, Integer page, Integer size, CustomerFields fields)
+			throws InvalidRequestException {
+		if (null == prefix || prefix.isBlank()) {
+			throw new InvalidRequestException("Name prefix cannot be empty.");
+		}
+		int pageIndex = null == page ? 0 : page;
+		if (pageIndex < 0) {
+			throw new InvalidRequestException("Page cannot be negative.");
+		}
+		int pageSize = null == size ? defaultPageLimit : size;
+		if (pageSize < 1 || pageSize > maxPageLimit) {
+			throw new InvalidRequestException("Size should be between 1 and " + maxPageLimit + ".");
+		}
+		return Collections.unmodifiableList(
+				customerRepository.findByNameStartingWithOrderByNameAscIdAsc(prefix, PageRequest.of(pageIndex, pageSize), fields.getProjection()));
+	}
+
+	/**
+	 * Create a new customer and return it, in async mode the customer is saved with a pending mobile number validated in background
 	 * @param customer
 	 * @return
 	 * @throws InvalidMobileException in case mobileNumber is not valid 
 	 */
+	@Timed(value = SERVICE_TIMER, histogram = true)
+	@CachePut(cacheNames = CacheConfig.CUSTOMERS_CACHE, key = "#result.id")
 	public Customer createCustomer(Customer customer) throws InvalidMobileException {
 		// check if mobile valid before save
-		mobileService.validateMobileNumber(customer.getMobileNumber());
-		return customerRepository.save(customer);
+		if (!isAsyncMobileValidation()) {
+			mobileService.validateMobileNumber(customer.getMobileNumber());
+		}
+		customer.setMobileNumber(MobileNumberService.normalize(customer.getMobileNumber()));
+		resetMobileStatus(customer);
+		return transactionTemplate.execute(status -> {
+			Customer savedCustomer = customerRepository.save(customer);
+			customerOutboxRepository.save(outboxEvent(CustomerEventType.CREATED, savedCustomer));
+			return savedCustomer;
+		});
 	}
 
 	/**
-	 * Update specif customer data
+	 * Create many customers at once and return the result of each one in the same order, a customer that fail does not abort
+	 * the others. Customers with a mobile number already used by an existing customer or an earlier one of the request fail
+	 * before any validation. Mobile numbers are validated concurrently then the valid customers are saved by chunks using batch
+	 * inserts, a chunk that fails being saved again one customer at a time so only the failing customers are reported.
+	 * In async mode all the customers are saved with pending mobile numbers validated in background
+	 * @param customers
+	 * @return
+	 * @throws InvalidRequestException in case the list is empty or bigger than the allowed size
+	 */
+	@Timed(value = SERVICE_TIMER, histogram = true)
+	public List<BulkCreateResult> createCustomers(List<Customer> customers) throws InvalidRequestException {
+		if (null == customers || customers.isEmpty()) {
+			throw new InvalidRequestException("Customers cannot be empty.");
+		}
+		if (customers.size() > maxBulkSize) {
+			throw new InvalidRequestException("Cannot create more than " + maxBulkSize + " customers at once.");
+		}
+		BulkCreateResult[] results = new BulkCreateResult[customers.size()];
+		checkMobileConflicts(customers, results);
+		// start the validation of all mobile numbers, the executor bound the concurrent calls
+		List<CompletableFuture<Void>> validations = new ArrayList<>(customers.size());
+		for (int i = 0; i < customers.size(); i++) {
+			Customer customer = customers.get(i);
+			if (null != results[i] || isAsyncMobileValidation()) {
+				validations.add(CompletableFuture.completedFuture(null));
+				continue;
+			}
+			validations.add(CompletableFuture.runAsync(() -> {
+				try {
+					mobileService.validateMobileNumber(customer.getMobileNumber());
+				} catch (InvalidMobileException e) {
+					throw new CompletionException(e);
+				}
+			}, mobileValidationExecutor));
+		}
+		List<Integer> validIndexes = new ArrayList<>(customers.size());
+		for (int i = 0; i < customers.size(); i++) {
+			if (null != results[i]) {
+				continue;
+			}
+			try {
+				validations.get(i).join();
+				validIndexes.add(i);
+			} catch (CompletionException e) {
+				results[i] = BulkCreateResult.failed(i, validationFailureStatus(e.getCause()), e.getCause().getMessage());
+			}
+		}
+		// save the valid customers with their change events, each chunk in one transaction so the inserts are batched
+		for (int from = 0; from < validIndexes.size(); from += bulkChunkSize) {
+			List<Integer> chunkIndexes = validIndexes.subList(from, Math.min(from + bulkChunkSize, validIndexes.size()));
+			List<Customer> chunk = new ArrayList<>(chunkIndexes.size());
+			for (Integer index : chunkIndexes) {
+				Customer customer = customers.get(index);
+				customer.setMobileNumber(MobileNumberService.normalize(customer.getMobileNumber()));
+				resetMobileStatus(customer);
+				chunk.add(customer);
+			}
+			try {
+				saveCreatedCustomers(chunk);
+				for (Integer index : chunkIndexes) {
+					results[index] = BulkCreateResult.created(index, customers.get(index).getId());
+				}
+			} catch (DataAccessException e) {
+				// a customer of the chunk, e.g. created concurrently with the same mobile number, rolled back the whole chunk
+				for (Integer index : chunkIndexes) {
+					results[index] = saveCreatedCustomer(index, customers.get(index));
+				}
+			}
+		}
+		return Arrays.asList(results);
+	}
+
+	/**
+	 * Fail the customers having a mobile number already used by an existing customer or an earlier customer of the request,
+	 * the existing mobile numbers are checked by chunks
+	 * @param customers
+	 * @param results results of the customers, the failed ones are set
+	 */
+	private void checkMobileConflicts(List<Customer> customers, BulkCreateResult[] results) {
+		Map<String, Integer> firstIndexes = new HashMap<>();
+		for (int i = 0; i < customers.size(); i++) {
+			String normalizedMobile = MobileNumberService.normalize(customers.get(i).getMobileNumber());
+			if (null != normalizedMobile && null != firstIndexes.putIfAbsent(normalizedMobile, i)) {
+				results[i] = BulkCreateResult.failed(i, HttpStatus.CONFLICT, "Mobile number is used by an earlier customer of the request");
+			}
+		}
+		List<String> mobileNumbers = new ArrayList<>(firstIndexes.keySet());
+		for (int from = 0; from < mobileNumbers.size(); from += bulkChunkSize) {
+			List<String> chunk = mobileNumbers.subList(from, Math.min(from + bulkChunkSize, mobileNumbers.size()));
+			for (String existingMobile : customerRepository.findExistingMobileNumbers(chunk)) {
+				int index = firstIndexes.get(existingMobile);
+				results[index] = BulkCreateResult.failed(index, HttpStatus.CONFLICT, MOBILE_CONFLICT_MESSAGE);
+			}
+		}
+	}
+
+	/**
+	 * Save the passed new customers with their change events in one transaction
+	 * @param customers
+	 */
+	private void saveCreatedCustomers(List<Customer> customers) {
+		transactionTemplate.executeWithoutResult(status -> {
+			List<CustomerOutboxEvent> events = new ArrayList<>(customers.size());
+			for (Customer savedCustomer : customerRepository.saveAll(customers)) {
+				events.add(outboxEvent(CustomerEventType.CREATED, savedCustomer));
+			}
+			customerOutboxRepository.saveAll(events);
+		});
+	}
+
+	/**
+	 * Save a new customer of a bulk create alone and return its result
+	 * @param index
+	 * @param customer
+	 * @return
+	 */
+	private BulkCreateResult saveCreatedCustomer(int index, Customer customer) {
+		// the id given by the rolled back chunk is not used, a new one is taken
+		customer.setId(null);
+		customer.setVersion(null);
+		try {
+			saveCreatedCustomers(Collections.singletonList(customer));
+			return BulkCreateResult.created(index, customer.getId());
+		} catch (DataIntegrityViolationException e) {
+			return Customer.isMobileNumberViolation(e) ? BulkCreateResult.failed(index, HttpStatus.CONFLICT, MOBILE_CONFLICT_MESSAGE)
+					: BulkCreateResult.failed(index, HttpStatus.BAD_REQUEST, "Customer data breaks a database constraint");
+		} catch (DataAccessException e) {
+			return BulkCreateResult.failed(index, HttpStatus.INTERNAL_SERVER_ERROR, "Customer cannot be saved, please try again");
+		}
+	}
+
+	/**
+	 * Return the status of a customer of a bulk create depending on the reason of the mobile number validation failure
+	 * @param cause
+	 * @return
+	 */
+	private HttpStatus validationFailureStatus(Throwable cause) {
+		if (cause instanceof InvalidMobileException) {
+			return HttpStatus.BAD_REQUEST;
+		}
+		if (cause instanceof MobileValidatorUnavailableException) {
+			return HttpStatus.SERVICE_UNAVAILABLE;
+		}
+		return HttpStatus.INTERNAL_SERVER_ERROR;
+	}
+
+	/**
+	 * Update specif customer data, the mobile number is validated only if it's changed and nothing is updated in case
+	 * the data is the same
 	 * @param id
 	 * @param customer
 	 * @return
@@ -75,22 +472,117 @@ public class CustomerService {
 	 * @throws CustomerNotFoundException in case there is no such customer with the provided id
 	 * @throws InvalidRequestException in case the id is less than or equal 0(invalid)
 	 */
+	@Timed(value = SERVICE_TIMER, histogram = true)
+	@CachePut(cacheNames = CacheConfig.CUSTOMERS_CACHE, key = "#id")
 	public Customer updateCustomer(Long id, Customer customer) throws InvalidMobileException, CustomerNotFoundException, InvalidRequestException {
+		return updateCustomer(id, customer, null);
+	}
+
+	/**
+	 * Update specif customer data only if its current version is the expected one, used for the optimistic concurrency of the clients.
+	 * The version is checked on the customer loaded by the write transaction, a concurrent update before its commit is detected by
+	 * the version column
+	 * @param id
+	 * @param customer
+	 * @param expectedVersion version the client has, null to update whatever the current version is
+	 * @return
+	 * @throws InvalidMobileException in case mobileNumber is not valid
+	 * @throws CustomerNotFoundException in case there is no such customer with the provided id
+	 * @throws InvalidRequestException in case the id is less than or equal 0(invalid)
+	 * @throws CustomerVersionMismatchException in case the current version of the customer is not the expected one
+	 */
+	@Timed(value = SERVICE_TIMER, histogram = true)
+	@CachePut(cacheNames = CacheConfig.CUSTOMERS_CACHE, key = "#id")
+	public Customer updateCustomer(Long id, Customer customer, Long expectedVersion)
+			throws InvalidMobileException, CustomerNotFoundException, InvalidRequestException {
 		if(null == id || id < 1) 
 		{
 			throw new InvalidRequestException("Id cannot be null.");
 		}
-		// check if mobile valid before save
-		mobileService.validateMobileNumber(customer.getMobileNumber());
-		Optional<Customer> retrievedCust = customerRepository.findById(id);
-		if (retrievedCust.isEmpty()) {
+		String normalizedMobile = MobileNumberService.normalize(customer.getMobileNumber());
+		if (!isAsyncMobileValidation()) {
+			// the mobile number is validated outside of the write transaction, no connection is held during the call.
+			// Read from the primary in its own transaction, a replica may not have the current version yet
+			Optional<Customer> retrievedCust = transactionTemplate.execute(status -> customerRepository.findById(id));
+			if (retrievedCust.isEmpty()) {
+				throw new CustomerNotFoundException(id);
+			}
+			checkVersion(retrievedCust.get(), expectedVersion);
+			// check if mobile valid before save, only when it's really changed. In case it's changed concurrently before the
+			// write transaction, the new number is either validated here or the one that was stored and validated before
+			if (!Objects.equals(MobileNumberService.normalize(retrievedCust.get().getMobileNumber()), normalizedMobile)) {
+				mobileService.validateMobileNumber(customer.getMobileNumber());
+			}
+		}
+		// the customer is loaded again in the write transaction and changed as a managed entity, so the version check is done on
+		// the current row and only the changed columns are updated at flush without merging it (dynamic update)
+		Optional<Customer> updatedCust = transactionTemplate.execute(status -> {
+			Optional<Customer> retrievedCust = customerRepository.findById(id);
+			if (retrievedCust.isEmpty()) {
+				return retrievedCust;
+			}
+			Customer _customer = retrievedCust.get();
+			checkVersion(_customer, expectedVersion);
+			if (Objects.equals(_customer.getName(), customer.getName())
+					&& Objects.equals(_customer.getAddress(), customer.getAddress())
+					&& Objects.equals(_customer.getMobileNumber(), normalizedMobile)) {
+				// nothing changed, no need to update the database
+				return retrievedCust;
+			}
+			boolean mobileChanged = !Objects.equals(_customer.getMobileNumber(), normalizedMobile);
+			_customer.setName(customer.getName());
+			_customer.setAddress(customer.getAddress());
+			_customer.setMobileNumber(normalizedMobile);
+			if (mobileChanged) {
+				resetMobileStatus(_customer);
+			}
+			// flushed before the change event is written, so the event contains the new version and update date
+			customerRepository.flush();
+			customerOutboxRepository.save(outboxEvent(CustomerEventType.UPDATED, _customer));
+			return retrievedCust;
+		});
+		if (updatedCust.isEmpty()) {
 			throw new CustomerNotFoundException(id);
 		}
-		Customer _customer = retrievedCust.get();
-		_customer.setName(customer.getName());
-		_customer.setAddress(customer.getAddress());
-		_customer.setMobileNumber(customer.getMobileNumber());
-		return customerRepository.save(_customer);
+		return updatedCust.get();
+	}
+
+	/**
+	 * Check the version of the passed customer is the expected one
+	 * @param customer
+	 * @param expectedVersion version the client has, null to accept any version
+	 * @throws CustomerVersionMismatchException in case the version of the customer is not the expected one
+	 */
+	private void checkVersion(Customer customer, Long expectedVersion) {
+		if (null != expectedVersion && !expectedVersion.equals(customer.getVersion())) {
+			throw new CustomerVersionMismatchException(customer.getId(), String.valueOf(expectedVersion));
+		}
+	}
+
+	/**
+	 * Save the status of the validated mobile number of the customer having the passed id with its change event, used by the
+	 * background validation. Nothing is saved in case the mobile number was changed or is not pending anymore
+	 * @param id
+	 * @param mobileNumber validated mobile number
+	 * @param mobileStatus VALID or INVALID
+	 * @return true in case the status is saved
+	 */
+	@Timed(value = SERVICE_TIMER, histogram = true)
+	@CacheEvict(cacheNames = CacheConfig.CUSTOMERS_CACHE, key = "#id")
+	public boolean completeMobileValidation(Long id, String mobileNumber, MobileStatus mobileStatus) {
+		return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+			Optional<Customer> customer = customerRepository.findById(id);
+			if (customer.isEmpty() || customer.get().getMobileStatus() != MobileStatus.PENDING
+					|| !Objects.equals(customer.get().getMobileNumber(), mobileNumber)) {
+				return false;
+			}
+			Customer _customer = customer.get();
+			_customer.setMobileStatus(mobileStatus);
+			_customer.setMobileNextValidation(null);
+			Customer savedCustomer = customerRepository.save(_customer);
+			customerOutboxRepository.save(outboxEvent(CustomerEventType.UPDATED, savedCustomer));
+			return true;
+		}));
 	}
 
 	/**
@@ -99,16 +591,174 @@ public class CustomerService {
 	 * @throws CustomerNotFoundException in case there is no such customer with the provided id
 	 * @throws InvalidRequestException in case the id is less than or equal 0(invalid)
 	 */
+	@Timed(value = SERVICE_TIMER, histogram = true)
+	@CacheEvict(cacheNames = CacheConfig.CUSTOMERS_CACHE, key = "#id", condition = "#id != null")
 	public void deleteCustomer(Long id) throws CustomerNotFoundException, InvalidRequestException {
 		if(null == id || id < 1) 
 		{
 			throw new InvalidRequestException("Id cannot be null.");
 		}
-		Optional<Customer> customer = customerRepository.findById(id);
-		if (customer.isEmpty()) {
+		// single delete statement, nothing deleted means there is no such customer
+		Boolean deleted = transactionTemplate.execute(status -> {
+			if (customerRepository.deleteCustomerById(id) == 0) {
+				return false;
+			}
+			customerOutboxRepository.save(outboxEvent(CustomerEventType.DELETED, id));
+			return true;
+		});
+		if (!Boolean.TRUE.equals(deleted)) {
 			throw new CustomerNotFoundException(id);
 		}
-		customerRepository.deleteById(id);
+	}
+
+	/**
+	 * Delete all the customers having the passed ids with a single delete statement
+	 * @param ids
+	 * @return the number of deleted customers and the ids that do not belong to any customer
+	 * @throws InvalidRequestException in case the ids are empty, too many or one of them is invalid
+	 */
+	@Timed(value = SERVICE_TIMER, histogram = true)
+	@Transactional
+	public BulkMutationResult deleteCustomers(List<Long> ids) throws InvalidRequestException {
+		Set<Long> requestedIds = checkBulkIds(ids);
+		List<Long> existingIds = customerRepository.findExistingIds(requestedIds);
+		int affected = existingIds.isEmpty() ? 0 : customerRepository.deleteCustomersByIds(existingIds);
+		saveOutboxEvents(CustomerEventType.DELETED, existingIds);
+		evictCustomers(existingIds);
+		return new BulkMutationResult(affected, missingIds(requestedIds, existingIds));
+	}
+
+	/**
+	 * Set the passed name and/or address on all the customers having the passed ids with a single update statement
+	 * @param request
+	 * @return the number of updated customers and the ids that do not belong to any customer
+	 * @throws InvalidRequestException in case there is nothing to update or the ids are empty, too many or one of them is invalid
+	 */
+	@Timed(value = SERVICE_TIMER, histogram = true)
+	@Transactional
+	public BulkMutationResult patchCustomers(BulkPatchRequest request) throws InvalidRequestException {
+		if (null == request || (null == request.getName() && null == request.getAddress())) {
+			throw new InvalidRequestException("Name or address should be passed.");
+		}
+		Set<Long> requestedIds = checkBulkIds(request.getIds());
+		List<Long> existingIds = customerRepository.findExistingIds(requestedIds);
+		int affected = existingIds.isEmpty() ? 0
+				: customerRepository.patchByIds(existingIds, request.getName(), request.getAddress());
+		saveOutboxEvents(CustomerEventType.UPDATED, existingIds);
+		evictCustomers(existingIds);
+		return new BulkMutationResult(affected, missingIds(requestedIds, existingIds));
+	}
+
+	/**
+	 * Return true in case the mobile numbers are validated in background instead of before saving the customers
+	 * @return
+	 */
+	private boolean isAsyncMobileValidation() {
+		return "async".equalsIgnoreCase(mobileValidatorMode);
+	}
+
+	/**
+	 * Set the status of a new or changed mobile number, already validated in sync mode or pending in async mode
+	 * @param customer
+	 */
+	private void resetMobileStatus(Customer customer) {
+		customer.setMobileStatus(isAsyncMobileValidation() ? MobileStatus.PENDING : MobileStatus.VALID);
+		customer.setMobileValidationAttempts(0);
+		customer.setMobileNextValidation(null);
+	}
+
+	/**
+	 * Check the ids of a bulk request and return them without duplicates
+	 * @param ids
+	 * @return
+	 * @throws InvalidRequestException in case the ids are empty, too many or one of them is invalid
+	 */
+	private Set<Long> checkBulkIds(List<Long> ids) throws InvalidRequestException {
+		if (null == ids || ids.isEmpty()) {
+			throw new InvalidRequestException("Ids cannot be empty.");
+		}
+		if (ids.size() > maxBulkSize) {
+			throw new InvalidRequestException("Cannot handle more than " + maxBulkSize + " customers at once.");
+		}
+		Set<Long> requestedIds = new LinkedHashSet<>(ids);
+		for (Long id : requestedIds) {
+			if (null == id || id < 1) {
+				throw new InvalidRequestException("Id cannot be null.");
+			}
+		}
+		return requestedIds;
+	}
+
+	/**
+	 * Remove the customers having the passed ids from the customers cache once the current transaction commits, a customer loaded
+	 * before the commit would be cached again with its old data otherwise. Removed at once when there is no transaction
+	 * @param ids
+	 */
+	private void evictCustomers(List<Long> ids) {
+		Cache customersCache = cacheManager.getCache(CacheConfig.CUSTOMERS_CACHE);
+		if (null == customersCache || ids.isEmpty()) {
+			return;
+		}
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			ids.forEach(customersCache::evict);
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				ids.forEach(customersCache::evict);
+			}
+		});
+	}
+
+	/**
+	 * Return the change event of the passed customer, with the customer as json
+	 * @param type
+	 * @param customer
+	 * @return
+	 */
+	private CustomerOutboxEvent outboxEvent(CustomerEventType type, Customer customer) {
+		try {
+			return new CustomerOutboxEvent(customer.getId(), type, objectMapper.writeValueAsString(customer));
+		} catch (JsonProcessingException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Return the change event of the customer having the passed id, without the customer
+	 * @param type
+	 * @param id
+	 * @return
+	 */
+	private CustomerOutboxEvent outboxEvent(CustomerEventType type, Long id) {
+		return new CustomerOutboxEvent(id, type, null);
+	}
+
+	/**
+	 * Save the change events of the customers having the passed ids, without the customers, should be called inside the
+	 * transaction of the change
+	 * @param type
+	 * @param ids
+	 */
+	private void saveOutboxEvents(CustomerEventType type, List<Long> ids) {
+		List<CustomerOutboxEvent> events = new ArrayList<>(ids.size());
+		for (Long id : ids) {
+			events.add(outboxEvent(type, id));
+		}
+		customerOutboxRepository.saveAll(events);
+	}
+
+	/**
+	 * Return the requested ids that are not in the existing ones
+	 * @param requestedIds
+	 * @param existingIds
+	 * @return
+	 */
+	private List<Long> missingIds(Set<Long> requestedIds, List<Long> existingIds) {
+		Set<Long> missingIds = new LinkedHashSet<>(requestedIds);
+		missingIds.removeAll(existingIds);
+		return new ArrayList<>(missingIds);
 	}
 
 }
@@ -1,13 +1,29 @@
 package com.areeba.challenge.customer.service;
 
-import java.text.MessageFormat;
 import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
 import com.areeba.challenge.customer.exception.InvalidMobileException;
+import com.areeba.challenge.customer.exception.MobileValidatorUnavailableException;
+import com.github.benmanes.caffeine.cache.Cache;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 /**
  * Mobile number service(in service layer) that will validate the passed mobile number and return all needed details in case it's valid
@@ -17,23 +33,152 @@ import com.areeba.challenge.customer.exception.InvalidMobileException;
 @Service
 public class MobileNumberService {
 
+	// characters used to format mobile numbers that are removed when normalizing it
+	private static final Pattern MOBILE_SEPARATORS = Pattern.compile("[\\s\\-().]");
+
+	// timer of the calls to the mobile validator, tagged by outcome valid, invalid or error
+	private static final String VALIDATION_TIMER = "mobile.validation";
+
+	// counter of the validations needing the mobile validator, tagged by call issued to the validator or coalesced with one in progress
+	private static final String VALIDATION_CALLS_COUNTER = "mobile.validation.calls";
+
 	// value of mobilevalidator url is read from application.properties file
 	@Value("${mobileValidator.url}")
 	private String mobileValidatorUrl;
 
+	// rest template using the pooled http client of the mobile validator
+	@Autowired
+	private RestTemplate mobileValidatorRestTemplate;
+
+	// cache of the validation result by normalized mobile number
+	@Autowired
+	private Cache<String, Boolean> mobileValidationCache;
+
+	// stop calling the mobile validator while it's failing
+	@Autowired
+	private CircuitBreaker mobileValidatorCircuitBreaker;
+
+	// limit the concurrent calls to the mobile validator
+	@Autowired
+	private Bulkhead mobileValidatorBulkhead;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	// validations in progress by normalized mobile number, the concurrent validations of the same number share its result
+	private final ConcurrentHashMap<String, CompletableFuture<Boolean>> inFlightValidations = new ConcurrentHashMap<>();
+
 	/**
-	 * Validate a specific mobile number, and return it's details in case is valid, else error message. 
+	 * Validate a specific mobile number, and return it's details in case is valid, else error message.
+	 * The result is cached by normalized mobile number so the validator API is only called once per number until it expires,
+	 * and the concurrent validations of a number that is not cached yet wait for the same call
 	 * @param mobile
 	 * @throws InvalidMobileException
 	 */
-	@SuppressWarnings("unchecked")
 	public void validateMobileNumber(String mobile) throws InvalidMobileException {
-		RestTemplate restTemplate = new RestTemplate();
-		HashMap<String, Object> result = restTemplate.getForObject(MessageFormat.format(mobileValidatorUrl, mobile),
-				HashMap.class);
-		if (!(boolean) result.get("valid")) {
+		String normalizedMobile = normalize(mobile);
+		// empty mobile numbers are not cached, the validator decides for them
+		Boolean valid = null == normalizedMobile ? null : mobileValidationCache.getIfPresent(normalizedMobile);
+		if (null == valid) {
+			valid = null == normalizedMobile ? isValid(mobile) : validateOnce(normalizedMobile);
+		}
+		if (!valid) {
 			throw new InvalidMobileException(mobile);
 		}
 	}
 
+	/**
+	 * Return the mobile number without spaces and formatting characters, null in case nothing remains
+	 * @param mobile
+	 * @return
+	 */
+	public static String normalize(String mobile) {
+		if (null == mobile) {
+			return null;
+		}
+		String normalizedMobile = MOBILE_SEPARATORS.matcher(mobile).replaceAll("");
+		return normalizedMobile.isEmpty() ? null : normalizedMobile;
+	}
+
+	/**
+	 * Return the valid flag of the normalized mobile number, calling the validator API only if no validation of the same number is
+	 * in progress, else waiting for it and sharing its result or its failure. The result is cached before the validation is removed
+	 * from the ones in progress so a later validation finds it in one or the other, and any failure is shared before it's removed
+	 * @param normalizedMobile
+	 * @return
+	 * @throws MobileValidatorUnavailableException in case the circuit breaker is open, too many calls are in progress or the call failed
+	 */
+	private boolean validateOnce(String normalizedMobile) {
+		CompletableFuture<Boolean> validation = new CompletableFuture<>();
+		CompletableFuture<Boolean> inFlightValidation = inFlightValidations.putIfAbsent(normalizedMobile, validation);
+		if (null != inFlightValidation) {
+			countCall("coalesced");
+			try {
+				return inFlightValidation.join();
+			} catch (CompletionException e) {
+				if (e.getCause() instanceof RuntimeException) {
+					throw (RuntimeException) e.getCause();
+				}
+				if (e.getCause() instanceof Error) {
+					throw (Error) e.getCause();
+				}
+				throw e;
+			}
+		}
+		try {
+			// the validation may have completed between the cache lookup and the registration of this one
+			Boolean valid = mobileValidationCache.getIfPresent(normalizedMobile);
+			if (null == valid) {
+				countCall("issued");
+				valid = isValid(normalizedMobile);
+				mobileValidationCache.put(normalizedMobile, valid);
+			}
+			validation.complete(valid);
+			return valid;
+		} catch (Throwable e) {
+			// errors included, the coalesced validations would wait forever otherwise
+			validation.completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlightValidations.remove(normalizedMobile, validation);
+		}
+	}
+
+	/**
+	 * Count a validation needing the mobile validator
+	 * @param call issued or coalesced
+	 */
+	private void countCall(String call) {
+		Counter.builder(VALIDATION_CALLS_COUNTER).tag("call", call).register(meterRegistry).increment();
+	}
+
+	/**
+	 * Call the validator API through the bulkhead and the circuit breaker and return the valid flag of the mobile number details,
+	 * the call is timed including the rejected ones. A call failing to get the details, like a connection failure or a timeout,
+	 * makes the validator unavailable as a rejected call does
+	 * @param mobile
+	 * @return
+	 * @throws MobileValidatorUnavailableException in case the circuit breaker is open, too many calls are in progress or the call failed
+	 */
+	@SuppressWarnings("unchecked")
+	private boolean isValid(String mobile) {
+		Supplier<Boolean> validatorCall = () -> {
+			// the {0} placeholder of the url is expanded with the mobile number
+			HashMap<String, Object> result = mobileValidatorRestTemplate.getForObject(mobileValidatorUrl, HashMap.class, mobile);
+			return (boolean) result.get("valid");
+		};
+		Timer.Sample sample = Timer.start(meterRegistry);
+		String outcome = "error";
+		try {
+			boolean valid = Bulkhead.decorateSupplier(mobileValidatorBulkhead,
+					CircuitBreaker.decorateSupplier(mobileValidatorCircuitBreaker, validatorCall)).get();
+			outcome = valid ? "valid" : "invalid";
+			return valid;
+		} catch (CallNotPermittedException | BulkheadFullException | RestClientException e) {
+			throw new MobileValidatorUnavailableException(e);
+		} finally {
+			sample.stop(Timer.builder(VALIDATION_TIMER).tag("outcome", outcome).publishPercentileHistogram().register(meterRegistry));
+		}
+	}
+
 }
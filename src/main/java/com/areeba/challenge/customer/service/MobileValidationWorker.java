@@ -0,0 +1,185 @@
+package com.areeba.challenge.customer.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.areeba.challenge.customer.exception.InvalidMobileException;
+import com.areeba.challenge.customer.model.Customer;
+import com.areeba.challenge.customer.model.MobileStatus;
+import com.areeba.challenge.customer.repository.CustomerRepository;
+
+/**
+ * Background worker validating the pending mobile numbers of the customers by batches, when mobileValidator.mode is async.
+ * A batch is claimed in a short transaction that push back the next validation of its customers by the lease, so they are not
+ * claimed again by another run or instance while they are validated, then the mobile numbers are validated concurrently outside
+ * of any transaction. A mobile number that cannot be validated, the validator being unavailable or failing, is retried later
+ * with an exponential backoff
+ * 
+ * @author Hussein Zaraket
+ */
+@Component
+@ConditionalOnProperty(name = "mobileValidator.mode", havingValue = "async")
+public class MobileValidationWorker {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(MobileValidationWorker.class);
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private CustomerService customerService;
+
+	@Autowired
+	private MobileNumberService mobileService;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	// executor bounding the mobile numbers validated concurrently
+	@Autowired
+	@Qualifier("pendingMobileValidationExecutor")
+	private Executor pendingMobileValidationExecutor;
+
+	// maximum number of pending customers claimed at once
+	@Value("${mobileValidator.async.batchSize:100}")
+	private int batchSize;
+
+	// time a run keeps claiming full batches, so it does not hold its scheduler thread while customers keep being created
+	@Value("${mobileValidator.async.drainBudget:10s}")
+	private Duration drainBudget;
+
+	// time the claimed customers are not claimed again, should be longer than validating a batch
+	@Value("${mobileValidator.async.lease:5m}")
+	private Duration lease;
+
+	// time before validating again a mobile number that failed to be validated the first time, doubled by each failure
+	@Value("${mobileValidator.async.backoff:5s}")
+	private Duration backoff;
+
+	// maximum time before validating again a mobile number that failed to be validated
+	@Value("${mobileValidator.async.maxBackoff:10m}")
+	private Duration maxBackoff;
+
+	/**
+	 * Validate the pending mobile numbers until no full batch remains or the drain budget is spent, the remaining ones being
+	 * validated by the next run
+	 */
+	@Scheduled(fixedDelayString = "${mobileValidator.async.pollDelay:1000}")
+	public void drain() {
+		try {
+			long deadline = System.nanoTime() + drainBudget.toNanos();
+			List<Customer> customers;
+			do {
+				customers = transactionTemplate.execute(status -> claimBatch());
+				validate(customers);
+			} while (null != customers && customers.size() == batchSize && System.nanoTime() - deadline < 0);
+		} catch (RuntimeException e) {
+			LOGGER.warn("Pending mobile numbers not validated, they will be validated by a next run", e);
+		}
+	}
+
+	/**
+	 * Lock the pending customers due for validation and push back their next validation by the lease, should be called inside
+	 * a transaction
+	 * @return the claimed customers
+	 */
+	private List<Customer> claimBatch() {
+		Date now = new Date();
+		List<Customer> customers = customerRepository.findPendingMobileForUpdate(now, batchSize);
+		if (customers.isEmpty()) {
+			return customers;
+		}
+		List<Long> ids = new ArrayList<>(customers.size());
+		for (Customer customer : customers) {
+			ids.add(customer.getId());
+		}
+		customerRepository.deferPendingMobile(ids, new Date(now.getTime() + lease.toMillis()));
+		return customers;
+	}
+
+	/**
+	 * Validate the mobile numbers of the claimed customers concurrently and wait for all of them
+	 * @param customers
+	 */
+	private void validate(List<Customer> customers) {
+		if (null == customers || customers.isEmpty()) {
+			return;
+		}
+		List<CompletableFuture<Void>> validations = new ArrayList<>(customers.size());
+		for (Customer customer : customers) {
+			validations.add(CompletableFuture.runAsync(() -> validate(customer), pendingMobileValidationExecutor));
+		}
+		CompletableFuture.allOf(validations.toArray(new CompletableFuture[0])).join();
+	}
+
+	/**
+	 * Validate the mobile number of a claimed customer and save its status, or schedule its next validation in case
+	 * it cannot be validated now
+	 * @param customer
+	 */
+	private void validate(Customer customer) {
+		MobileStatus mobileStatus;
+		try {
+			mobileService.validateMobileNumber(customer.getMobileNumber());
+			mobileStatus = MobileStatus.VALID;
+		} catch (InvalidMobileException e) {
+			mobileStatus = MobileStatus.INVALID;
+		} catch (RuntimeException e) {
+			retry(customer, e);
+			return;
+		}
+		try {
+			complete(customer, mobileStatus);
+		} catch (RuntimeException e) {
+			retry(customer, e);
+		}
+	}
+
+	/**
+	 * Save the validation status of the customer mobile number, once more in case the customer was updated concurrently
+	 * @param customer
+	 * @param mobileStatus
+	 */
+	private void complete(Customer customer, MobileStatus mobileStatus) {
+		try {
+			customerService.completeMobileValidation(customer.getId(), customer.getMobileNumber(), mobileStatus);
+		} catch (OptimisticLockingFailureException e) {
+			customerService.completeMobileValidation(customer.getId(), customer.getMobileNumber(), mobileStatus);
+		}
+	}
+
+	/**
+	 * Count the failed validation of the customer mobile number and schedule the next one after the backoff
+	 * @param customer
+	 * @param cause
+	 */
+	private void retry(Customer customer, RuntimeException cause) {
+		int attempts = customer.getMobileValidationAttempts();
+		// backoff doubled by each failed attempt, the shift is bounded so it cannot overflow
+		long delay = Math.min(backoff.toMillis() << Math.min(attempts, 20), maxBackoff.toMillis());
+		LOGGER.debug("Mobile number of customer {} not validated, retrying in {} ms", customer.getId(), delay, cause);
+		try {
+			customerRepository.retryPendingMobile(customer.getId(), customer.getMobileNumber(),
+					new Date(System.currentTimeMillis() + delay));
+		} catch (RuntimeException e) {
+			// the customer stays claimed until the lease expires
+			LOGGER.warn("Next validation of the mobile number of customer {} not scheduled", customer.getId(), e);
+		}
+	}
+
+}
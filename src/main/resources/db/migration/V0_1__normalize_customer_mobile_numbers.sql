@@ -0,0 +1,41 @@
+-- Mobile numbers of the customers stored before they were normalized, applied on the databases baselined before V1 creates
+-- the unique index on the mobile number. The numbers are normalized as MobileNumberService.normalize does (separators removed,
+-- empty ones set to null) so the lookup by normalized number finds them.
+-- Customers sharing the same normalized number keep it on the last updated one, the others lose it and are copied to
+-- customer_mobile_duplicate to be reviewed.
+-- Nothing is done on new databases, the customer table is created by V1.
+DO $$
+BEGIN
+	IF to_regclass('customer') IS NULL THEN
+		RETURN;
+	END IF;
+
+	CREATE TABLE IF NOT EXISTS customer_mobile_duplicate (
+		customer_id BIGINT NOT NULL,
+		mobile_number VARCHAR(30) NOT NULL,
+		kept_customer_id BIGINT NOT NULL,
+		created_date TIMESTAMP NOT NULL,
+		CONSTRAINT customer_mobile_duplicate_pkey PRIMARY KEY (customer_id)
+	);
+
+	-- duplicates are resolved first, normalizing them would fail on a unique constraint created by hibernate ddl-auto
+	INSERT INTO customer_mobile_duplicate (customer_id, mobile_number, kept_customer_id, created_date)
+	SELECT customer_id, mobile_number, kept_customer_id, now()
+	FROM (
+		SELECT customer_id, mobile_number,
+			first_value(customer_id) OVER normalized_mobile AS kept_customer_id,
+			row_number() OVER normalized_mobile AS mobile_rank
+		FROM customer
+		WHERE NULLIF(regexp_replace(mobile_number, '[[:space:]().-]', '', 'g'), '') IS NOT NULL
+		WINDOW normalized_mobile AS (PARTITION BY regexp_replace(mobile_number, '[[:space:]().-]', '', 'g')
+			ORDER BY updated_date DESC, customer_id DESC)
+	) ranked_customer
+	WHERE mobile_rank > 1
+	ON CONFLICT (customer_id) DO NOTHING;
+
+	UPDATE customer SET mobile_number = NULL
+	WHERE customer_id IN (SELECT customer_id FROM customer_mobile_duplicate) AND mobile_number IS NOT NULL;
+
+	UPDATE customer SET mobile_number = NULLIF(regexp_replace(mobile_number, '[[:space:]().-]', '', 'g'), '')
+	WHERE mobile_number IS DISTINCT FROM NULLIF(regexp_replace(mobile_number, '[[:space:]().-]', '', 'g'), '');
+END $$;
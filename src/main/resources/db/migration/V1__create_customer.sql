@@ -0,0 +1,20 @@
+-- Customer table, its id sequence and indexes.
+-- Statements are idempotent so databases created by hibernate ddl-auto before flyway are migrated without change.
+CREATE SEQUENCE IF NOT EXISTS customer_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS customer (
+	customer_id BIGINT NOT NULL,
+	name VARCHAR(30) NOT NULL,
+	address VARCHAR(300),
+	mobile_number VARCHAR(30),
+	created_date TIMESTAMP NOT NULL,
+	updated_date TIMESTAMP NOT NULL,
+	CONSTRAINT customer_pkey PRIMARY KEY (customer_id)
+);
+
+-- lookup by mobile number, which is stored normalized and unique
+CREATE UNIQUE INDEX IF NOT EXISTS ux_customer_mobile_number ON customer (mobile_number);
+-- ordering by name
+CREATE INDEX IF NOT EXISTS ix_customer_name ON customer (name);
+-- name prefix search (name LIKE 'prefix%'), usable whatever the database collation is
+CREATE INDEX IF NOT EXISTS ix_customer_name_pattern ON customer (name varchar_pattern_ops);
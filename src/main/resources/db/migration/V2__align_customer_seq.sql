@@ -0,0 +1,8 @@
+-- Align customer_seq with the existing customers for the pooled id generator.
+-- Customer ids used to come from a wrongly named sequence, so customer_seq may be behind the existing ids.
+-- INCREMENT BY should be the same as spring.jpa.properties.hibernate.id.customer_seq.increment_size.
+ALTER SEQUENCE customer_seq INCREMENT BY 50;
+-- the next id block starts right after the biggest existing id
+SELECT setval('customer_seq', COALESCE((SELECT MAX(customer_id) FROM customer), 0) + 1, false);
+-- the sequence used by mistake is not needed anymore
+DROP SEQUENCE IF EXISTS customr_seq;
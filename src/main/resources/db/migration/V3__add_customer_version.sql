@@ -0,0 +1,3 @@
+-- Version of the customer, incremented by every update and used as its ETag.
+-- Existing customers start at version 0.
+ALTER TABLE customer ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,17 @@
+-- Outbox of the customer change events, written in the same transaction as the change and published by the relay.
+CREATE SEQUENCE IF NOT EXISTS customer_outbox_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS customer_outbox (
+	event_id BIGINT NOT NULL,
+	customer_id BIGINT NOT NULL,
+	event_type VARCHAR(10) NOT NULL,
+	payload VARCHAR(4000),
+	created_date TIMESTAMP NOT NULL,
+	published_date TIMESTAMP,
+	CONSTRAINT customer_outbox_pkey PRIMARY KEY (event_id)
+);
+
+-- events waiting for the relay
+CREATE INDEX IF NOT EXISTS ix_customer_outbox_unpublished ON customer_outbox (event_id) WHERE published_date IS NULL;
+-- removal of the events published before the retention
+CREATE INDEX IF NOT EXISTS ix_customer_outbox_published_date ON customer_outbox (published_date);
@@ -0,0 +1,8 @@
+-- Validation status of the mobile number, PENDING customers are validated in background when mobileValidator.mode is async.
+-- Existing customers were validated before being saved.
+ALTER TABLE customer ADD COLUMN IF NOT EXISTS mobile_status VARCHAR(10) NOT NULL DEFAULT 'VALID';
+ALTER TABLE customer ADD COLUMN IF NOT EXISTS mobile_validation_attempts INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE customer ADD COLUMN IF NOT EXISTS mobile_next_validation TIMESTAMP;
+
+-- customers waiting for the background validation
+CREATE INDEX IF NOT EXISTS ix_customer_mobile_pending ON customer (mobile_next_validation) WHERE mobile_status = 'PENDING';
@@ -0,0 +1,13 @@
+-- Position of the events in the publish order, used as cursor by the consumers.
+-- The event ids are allocated by blocks per instance so they do not follow the commit order, the relays take this sequence
+-- one by one while holding the relay lock so a published event never gets a position lower than an already visible one.
+CREATE SEQUENCE IF NOT EXISTS customer_outbox_publish_seq START WITH 1 INCREMENT BY 1;
+
+ALTER TABLE customer_outbox ADD COLUMN IF NOT EXISTS publish_seq BIGINT;
+
+-- the already published events keep their id as position, so the cursors the consumers already have stay valid
+UPDATE customer_outbox SET publish_seq = event_id WHERE published_date IS NOT NULL AND publish_seq IS NULL;
+SELECT setval('customer_outbox_publish_seq', COALESCE((SELECT MAX(event_id) FROM customer_outbox), 0) + 1, false);
+
+-- reading of the published events after a cursor
+CREATE UNIQUE INDEX IF NOT EXISTS ux_customer_outbox_publish_seq ON customer_outbox (publish_seq);
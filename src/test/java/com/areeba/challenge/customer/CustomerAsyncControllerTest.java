@@ -0,0 +1,154 @@
+package com.areeba.challenge.customer;
+
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.concurrent.Executor;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import com.areeba.challenge.customer.controller.CustomerAsyncController;
+import com.areeba.challenge.customer.exception.CustomerVersionMismatchException;
+import com.areeba.challenge.customer.model.Customer;
+import com.areeba.challenge.customer.service.CustomerService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Class that contain asynchronous customer controller test cases, the customer service calls run on the calling thread
+ * 
+ * @author Hussein Zaraket
+ */
+@WebMvcTest(CustomerAsyncController.class)
+public class CustomerAsyncControllerTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper mapper;
+
+	@MockBean
+	private CustomerService customerService;
+
+	// executor of the customer service calls, running them on the calling thread
+	@MockBean(name = "customerServiceExecutor")
+	private Executor customerServiceExecutor;
+
+	private Customer customer = new Customer(1L, "Hussein Zaraket", "Lebanon, Beirut", "0096170745563");
+
+	@BeforeEach
+	public void setUp() {
+		Mockito.doAnswer(invocation -> {
+			invocation.<Runnable>getArgument(0).run();
+			return null;
+		}).when(customerServiceExecutor).execute(ArgumentMatchers.any(Runnable.class));
+	}
+
+	/**
+	 * getCustomerById case, where the customer should be returned with its version as ETag
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void getCustomerById_eTag() throws Exception {
+		customer.setVersion(3L);
+		Mockito.when(customerService.getCustomerById(1L)).thenReturn(customer);
+
+		perform(MockMvcRequestBuilders.get("/api/customer-service/async/customers/1")).andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"3\"")).andExpect(jsonPath("$.name", is("Hussein Zaraket")));
+	}
+
+	/**
+	 * getCustomerById case, where the If-None-Match header contains the current version so 304 should be returned
+	 * without loading the customer
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void getCustomerById_notModified() throws Exception {
+		Mockito.when(customerService.getCustomerVersion(1L)).thenReturn(3L);
+
+		perform(MockMvcRequestBuilders.get("/api/customer-service/async/customers/1").header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+				.andExpect(status().isNotModified()).andExpect(header().string(HttpHeaders.ETAG, "\"3\""));
+		Mockito.verify(customerService, Mockito.never()).getCustomerById(ArgumentMatchers.anyLong());
+	}
+
+	/**
+	 * updateCustomer with If-Match header success case, the version of the ETag should be passed to the service
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void updateCustomer_ifMatch() throws Exception {
+		Customer savedCustomer = new Customer(1L, "Hussein Zaraket", "Lebanon, Tyre", "0096170745563");
+		savedCustomer.setVersion(5L);
+		Mockito.when(customerService.updateCustomer(1L, customer, 4L)).thenReturn(savedCustomer);
+
+		perform(put("\"4\"")).andExpect(status().isOk()).andExpect(header().string(HttpHeaders.ETAG, "\"5\""))
+				.andExpect(jsonPath("$.address", is("Lebanon, Tyre")));
+	}
+
+	/**
+	 * updateCustomer fail case, where the If-Match header is not the current version so the update should be refused
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void updateCustomer_staleIfMatch() throws Exception {
+		Mockito.when(customerService.updateCustomer(1L, customer, 4L)).thenThrow(new CustomerVersionMismatchException(1L, "4"));
+
+		perform(put("\"4\"")).andExpect(status().isOk()).andExpect(jsonPath("$.status", is("PRECONDITION_FAILED")));
+		Mockito.verify(customerService, Mockito.never()).updateCustomer(1L, customer);
+	}
+
+	/**
+	 * updateCustomer fail case, where the If-Match header is a weak ETag so the update should be refused without calling the service
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void updateCustomer_weakIfMatch() throws Exception {
+		perform(put("W/\"4\"")).andExpect(status().isOk()).andExpect(jsonPath("$.status", is("PRECONDITION_FAILED")));
+		Mockito.verifyNoInteractions(customerService);
+	}
+
+	/**
+	 * Prepare the update of the test customer with the passed If-Match header
+	 * @param ifMatch
+	 * @return
+	 * @throws Exception
+	 */
+	private RequestBuilder put(String ifMatch) throws Exception {
+		return MockMvcRequestBuilders.put("/api/customer-service/async/customers/1").header(HttpHeaders.IF_MATCH, ifMatch)
+				.contentType(MediaType.APPLICATION_JSON).content(this.mapper.writeValueAsString(customer));
+	}
+
+	/**
+	 * Perform the request and dispatch its asynchronous result
+	 * @param requestBuilder
+	 * @return
+	 * @throws Exception
+	 */
+	private ResultActions perform(RequestBuilder requestBuilder) throws Exception {
+		MvcResult result = mockMvc.perform(requestBuilder).andExpect(request().asyncStarted()).andReturn();
+		return mockMvc.perform(asyncDispatch(result));
+	}
+
+}
@@ -5,29 +5,52 @@ import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.junit.Assert.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.io.OutputStream;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.Assert;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
 import com.areeba.challenge.customer.controller.CustomerController;
+import com.areeba.challenge.customer.dto.BulkCreateResult;
+import com.areeba.challenge.customer.dto.BulkMutationResult;
+import com.areeba.challenge.customer.dto.BulkPatchRequest;
+import com.areeba.challenge.customer.dto.CustomerDetails;
+import com.areeba.challenge.customer.dto.CustomerFields;
+import com.areeba.challenge.customer.dto.CustomerMobileStatus;
+import com.areeba.challenge.customer.dto.CustomerPage;
+import com.areeba.challenge.customer.dto.CustomerSummary;
 import com.areeba.challenge.customer.exception.CustomerNotFoundException;
 import com.areeba.challenge.customer.exception.InvalidMobileException;
 import com.areeba.challenge.customer.exception.InvalidRequestException;
 import com.areeba.challenge.customer.model.Customer;
+import com.areeba.challenge.customer.model.MobileStatus;
 import com.areeba.challenge.customer.service.CustomerService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -57,24 +80,129 @@ public class CustomerControllerTest {
 	private Customer customer3 = new Customer(3L, "Mohamad Falha", "Lebanon, Tripole", "0096181447554");
 	private Customer customer4 = new Customer(4L, "Tarek Mrad", "Lebanon, Beirut", "0096170444222");
 
+	// create the customer projections returned by the repository
+	private ProjectionFactory projectionFactory = new SpelAwareProxyProjectionFactory();
+
 	/**
-	 * Test getAllCustomers method success case
+	 * Test getAllCustomers method success case, the first page should be returned as a list with the link to the next page
 	 * 
 	 * @throws Exception
 	 */
 	@Test
 	public void getAllCustomers_success() throws Exception{
-		List<Customer> records = new ArrayList<>(Arrays.asList(customer1, customer2, customer3, customer4));
+		CustomerPage<CustomerSummary> page = new CustomerPage<>(new ArrayList<>(Arrays.asList(details(customer1), details(customer2),
+				details(customer3), details(customer4))), 4L, 4);
 
-		// mock the getAllCustomer method and return custom data
-		Mockito.when(customerService.getAllCustomers()).thenReturn(records);
+		// mock the getCustomersPage method and return custom data
+		Mockito.when(customerService.getCustomersPage(null, 4, CustomerFields.FULL)).thenReturn(page);
 
 		// Call the needed API and insure that the return data is the same as the one specified in above mocking functionality 
 		mockMvc.perform(
-				MockMvcRequestBuilders.get("/api/customer-service/customers").contentType(MediaType.APPLICATION_JSON))
+				MockMvcRequestBuilders.get("/api/customer-service/customers").param("limit", "4").contentType(MediaType.APPLICATION_JSON))
 				.andExpect(status().isOk()).andExpect(jsonPath("$", hasSize(4)))
 				.andExpect(jsonPath("$[1].name", is("John Farhat")))
-				.andExpect(jsonPath("$[3].mobileNumber", is("0096170444222")));
+				.andExpect(jsonPath("$[3].mobileNumber", is("0096170444222")))
+				.andExpect(header().string(HttpHeaders.LINK, "<http://localhost/api/customer-service/customers?after=4&limit=4>; rel=\"next\""));
+	}
+
+	/**
+	 * getAllCustomers case, where the last page should be returned without link to a next page
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void getAllCustomers_lastPage() throws Exception {
+		CustomerPage<CustomerSummary> page = new CustomerPage<>(new ArrayList<>(Arrays.asList(details(customer4))), null, 50);
+
+		// mock the getCustomersPage method and return custom data
+		Mockito.when(customerService.getCustomersPage(3L, null, CustomerFields.FULL)).thenReturn(page);
+
+		mockMvc.perform(MockMvcRequestBuilders.get("/api/customer-service/customers").param("after", "3"))
+				.andExpect(status().isOk()).andExpect(jsonPath("$", hasSize(1)))
+				.andExpect(jsonPath("$[0].name", is("Tarek Mrad"))).andExpect(header().doesNotExist(HttpHeaders.LINK));
+	}
+
+	/**
+	 * getAllCustomers case, where the summary fields are requested so only the id and the name should be returned
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void getAllCustomers_summaryFields() throws Exception {
+		CustomerPage<CustomerSummary> page = new CustomerPage<>(new ArrayList<>(Arrays.asList(
+				projectionFactory.createProjection(CustomerSummary.class, customer1))), null, 50);
+
+		// mock the getCustomersPage method and return custom data
+		Mockito.when(customerService.getCustomersPage(null, null, CustomerFields.SUMMARY)).thenReturn(page);
+
+		mockMvc.perform(MockMvcRequestBuilders.get("/api/customer-service/customers").param("fields", "summary"))
+				.andExpect(status().isOk()).andExpect(jsonPath("$[0].name", is("Hussein Zaraket")))
+				.andExpect(jsonPath("$[0].mobileNumber").doesNotExist()).andExpect(jsonPath("$[0].createdDate").doesNotExist());
+	}
+
+	/**
+	 * Test getCustomersPage method success case
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void getCustomersPage_success() throws Exception {
+		CustomerPage<CustomerSummary> page = new CustomerPage<>(new ArrayList<>(Arrays.asList(
+				projectionFactory.createProjection(CustomerDetails.class, customer3),
+				projectionFactory.createProjection(CustomerDetails.class, customer4))), 4L, 2);
+
+		// mock the getCustomersPage method and return custom data
+		Mockito.when(customerService.getCustomersPage(2L, 2, CustomerFields.FULL)).thenReturn(page);
+
+		// Call the needed API and insure that the return page and cursor are the same as the mocked ones
+		mockMvc.perform(MockMvcRequestBuilders.get("/api/customer-service/customers/page").param("after", "2")
+				.param("limit", "2").contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.content", hasSize(2)))
+				.andExpect(jsonPath("$.content[0].name", is("Mohamad Falha")))
+				.andExpect(jsonPath("$.content[0].mobileNumber", is("0096181447554")))
+				.andExpect(jsonPath("$.nextCursor", is(4)));
+	}
+
+	/**
+	 * Test getCustomersPage method with summary fields, only the id and name should be returned
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void getCustomersPage_summaryFields() throws Exception {
+		CustomerPage<CustomerSummary> page = new CustomerPage<>(new ArrayList<>(Arrays.asList(
+				projectionFactory.createProjection(CustomerSummary.class, customer1))), null, 10);
+
+		// mock the getCustomersPage method and return custom data
+		Mockito.when(customerService.getCustomersPage(null, 10, CustomerFields.SUMMARY)).thenReturn(page);
+
+		// Call the needed API and insure that the address and mobile number are not returned
+		mockMvc.perform(MockMvcRequestBuilders.get("/api/customer-service/customers/page").param("limit", "10")
+				.param("fields", "summary").contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.content", hasSize(1)))
+				.andExpect(jsonPath("$.content[0].id", is(1)))
+				.andExpect(jsonPath("$.content[0].name", is("Hussein Zaraket")))
+				.andExpect(jsonPath("$.content[0].address").doesNotExist())
+				.andExpect(jsonPath("$.content[0].mobileNumber").doesNotExist());
+	}
+
+	/**
+	 * getCustomersPage fail case, where an InvalidRequestException should be thrown in case the cursor is negative
+	 * 
+	 * @throws Exception
+	 */
+	@SuppressWarnings("deprecation")
+	@Test
+	public void getCustomersPage_negativeCursor() {
+		try {
+			// call getCustomersPage method with negative cursor
+			new CustomerService().getCustomersPage(-1L, 10, CustomerFields.FULL);
+			// should not reach this statement, if reached case will fail
+			Assert.fail("Exception expected");
+		} catch (InvalidRequestException e) {
+			// insure that the InvalidRequestException is thrown and check that the message is as expected
+			assertThat(e.getMessage(), containsString("After cursor cannot be negative."));
+		}
 	}
 
 	/**
@@ -94,6 +222,44 @@ public class CustomerControllerTest {
 				.andExpect(status().isOk()).andExpect(jsonPath("$", notNullValue()))
 				.andExpect(jsonPath("$.name", is("Mohamad Falha")));
 	}
+
+	/**
+	 * getCustomerById not modified case, where the If-None-Match header contains the current version of the customer
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void getCustomerById_notModified() throws Exception {
+
+		// mock the getCustomerVersion method and return the current version
+		Mockito.when(customerService.getCustomerVersion(customer3.getId())).thenReturn(2L);
+
+		// Call the needed API and insure that 304 is returned without loading the customer
+		mockMvc.perform(MockMvcRequestBuilders.get("/api/customer-service/customers/3").header(HttpHeaders.IF_NONE_MATCH, "\"2\"")
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isNotModified()).andExpect(header().string(HttpHeaders.ETAG, "\"2\""));
+		Mockito.verify(customerService, Mockito.never()).getCustomerById(customer3.getId());
+	}
+
+	/**
+	 * getMobileStatus success case, where the mobile number of the customer is still pending
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void getMobileStatus_pending() throws Exception {
+		customer3.setMobileStatus(MobileStatus.PENDING);
+
+		// mock the getMobileStatus method and return the status of the customer
+		Mockito.when(customerService.getMobileStatus(customer3.getId()))
+				.thenReturn(projectionFactory.createProjection(CustomerMobileStatus.class, customer3));
+
+		// Call the needed API and insure that the pending status is returned
+		mockMvc.perform(MockMvcRequestBuilders.get("/api/customer-service/customers/3/mobile-status")
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.mobileStatus", is("PENDING")))
+				.andExpect(jsonPath("$.mobileNumber", is("0096181447554")));
+	}
 	
 	/**
 	 * getCustomerById fail case, where an InvalidRequestException should be thrown in case the id is negative
@@ -119,6 +285,25 @@ public class CustomerControllerTest {
 		}
 	}
 
+	/**
+	 * searchCustomersByName success case
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void searchCustomersByName_success() throws Exception {
+		List<CustomerSummary> records = new ArrayList<>(Arrays.asList(projectionFactory.createProjection(CustomerDetails.class, customer1)));
+
+		// mock the searchCustomersByName method and return custom data
+		Mockito.when(customerService.searchCustomersByName("Hus", null, null, CustomerFields.FULL)).thenReturn(records);
+
+		// Call the needed API and insure that the return data is the same as the one specified in above mocking functionality
+		mockMvc.perform(MockMvcRequestBuilders.get("/api/customer-service/customers/search/name").param("prefix", "Hus")
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk()).andExpect(jsonPath("$", hasSize(1)))
+				.andExpect(jsonPath("$[0].name", is("Hussein Zaraket")));
+	}
+
 	/**
 	 * createCustomer success case
 	 * 
@@ -141,6 +326,33 @@ public class CustomerControllerTest {
 				.andExpect(jsonPath("$.name", is("Hussein Zaraket")));
 	}
 
+	/**
+	 * createCustomers success case, where the invalid customer does not prevent the others from being created
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void createCustomers_partialSuccess() throws Exception {
+		List<Customer> customers = new ArrayList<>(Arrays.asList(new Customer("John Farhat", "Lebanon, Tyre", "009613556441"),
+				new Customer("Tarek Mrad", "Lebanon, Beirut", "123")));
+		List<BulkCreateResult> results = new ArrayList<>(Arrays.asList(BulkCreateResult.created(0, 2L),
+				BulkCreateResult.failed(1, HttpStatus.BAD_REQUEST, "Invalid mobile number: 123")));
+
+		// mock the createCustomers method and return custom data
+		Mockito.when(customerService.createCustomers(customers)).thenReturn(results);
+
+		// RequestBuilder that prepare the API call that will be performed
+		MockHttpServletRequestBuilder mockRequest = MockMvcRequestBuilders.post("/api/customer-service/customers/bulk")
+				.contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON)
+				.content(this.mapper.writeValueAsString(customers));
+
+		// Call the needed API and insure that the result of each customer is returned
+		mockMvc.perform(mockRequest).andExpect(status().isOk()).andExpect(jsonPath("$", hasSize(2)))
+				.andExpect(jsonPath("$[0].id", is(2))).andExpect(jsonPath("$[0].code", is(201)))
+				.andExpect(jsonPath("$[1].code", is(400)))
+				.andExpect(jsonPath("$[1].message", is("Invalid mobile number: 123")));
+	}
+
 	/**
 	 * updateCustomer fail case, where an InvalidRequestException should be thrown in case the id is negative
 	 * 
@@ -187,8 +399,213 @@ public class CustomerControllerTest {
 		mockMvc.perform(mockRequest).andExpect(status().isOk()).andExpect(jsonPath("$", notNullValue()))
 				.andExpect(jsonPath("$.name", is("Hussein Zaraket")));
 	}
+
+	/**
+	 * updateCustomer with If-Match header success case, the version of the ETag should be passed to the service
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void updateCustomer_ifMatch() throws Exception {
+		Customer updatedCustomer = new Customer(1L, "Hussein Zaraket", "Lebanon, Tyre", "0096170745563");
+		Customer savedCustomer = new Customer(1L, "Hussein Zaraket", "Lebanon, Tyre", "0096170745563");
+		savedCustomer.setVersion(5L);
+
+		// mock the updateCustomer method and return custom data
+		Mockito.when(customerService.updateCustomer(updatedCustomer.getId(), updatedCustomer, 4L)).thenReturn(savedCustomer);
+
+		// RequestBuilder that prepare the API call that will be performed
+		MockHttpServletRequestBuilder mockRequest = MockMvcRequestBuilders.put("/api/customer-service/customers/1")
+				.header(HttpHeaders.IF_MATCH, "\"4\"").contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON)
+				.content(this.mapper.writeValueAsString(updatedCustomer));
+
+		// Call the needed API and insure that the new version is returned as ETag
+		mockMvc.perform(mockRequest).andExpect(status().isOk()).andExpect(header().string(HttpHeaders.ETAG, "\"5\""))
+				.andExpect(jsonPath("$.name", is("Hussein Zaraket")));
+	}
+
+	/**
+	 * createCustomer fail case, where the mobile number is already used by another customer
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void createCustomer_duplicateMobile() throws Exception {
+		Customer customer = new Customer("Hussein Zaraket", "Lebanon, Beirut", "0096170745563");
+
+		// mock the createCustomer method to fail on the unique index of the mobile numbers
+		Mockito.when(customerService.createCustomer(customer)).thenThrow(new DataIntegrityViolationException("duplicate key",
+				new ConstraintViolationException("duplicate key", new SQLException(), Customer.MOBILE_NUMBER_INDEX)));
+
+		// Call the needed API and insure that the conflict on the mobile number is returned
+		mockMvc.perform(MockMvcRequestBuilders.post("/api/customer-service/customers").contentType(MediaType.APPLICATION_JSON)
+				.content(this.mapper.writeValueAsString(customer)))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.status", is("CONFLICT")))
+				.andExpect(jsonPath("$.message", containsString("mobile number should be unique")));
+	}
+
+	/**
+	 * createCustomer fail case, where another constraint than the mobile number one is violated
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void createCustomer_otherConstraintViolation() throws Exception {
+		Customer customer = new Customer("Hussein Zaraket", "Lebanon, Beirut", "0096170745563");
+
+		// mock the createCustomer method to fail on another constraint
+		Mockito.when(customerService.createCustomer(customer)).thenThrow(new DataIntegrityViolationException("value too long",
+				new ConstraintViolationException("value too long", new SQLException(), null)));
+
+		// Call the needed API and insure that a generic invalid request is returned
+		mockMvc.perform(MockMvcRequestBuilders.post("/api/customer-service/customers").contentType(MediaType.APPLICATION_JSON)
+				.content(this.mapper.writeValueAsString(customer)))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.status", is("BAD_REQUEST")))
+				.andExpect(jsonPath("$.message", containsString("database constraint")));
+	}
 	
 
+	/**
+	 * patchCustomers success case, where the number of updated customers and the unknown ids should be returned
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void patchCustomers_success() throws Exception {
+		BulkPatchRequest request = new BulkPatchRequest(new ArrayList<>(Arrays.asList(1L, 2L, 9L)), null, "Lebanon, Saida");
+
+		// mock the patchCustomers method and return custom data
+		Mockito.when(customerService.patchCustomers(Mockito.any(BulkPatchRequest.class)))
+				.thenReturn(new BulkMutationResult(2, new ArrayList<>(Arrays.asList(9L))));
+
+		// Call the needed API and insure that the count and the unknown id are returned
+		mockMvc.perform(MockMvcRequestBuilders.patch("/api/customer-service/customers/bulk").contentType(MediaType.APPLICATION_JSON)
+				.content(this.mapper.writeValueAsString(request)))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.affected", is(2)))
+				.andExpect(jsonPath("$.missingIds", hasSize(1))).andExpect(jsonPath("$.missingIds[0]", is(9)));
+	}
+
+	/**
+	 * patchCustomers case, where none of the ids belong to a customer so nothing should be updated
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void patchCustomers_unknownIds() throws Exception {
+		BulkPatchRequest request = new BulkPatchRequest(new ArrayList<>(Arrays.asList(7L, 8L)), "John Farhat", null);
+
+		// mock the patchCustomers method and return custom data
+		Mockito.when(customerService.patchCustomers(Mockito.any(BulkPatchRequest.class)))
+				.thenReturn(new BulkMutationResult(0, new ArrayList<>(Arrays.asList(7L, 8L))));
+
+		// Call the needed API and insure that both ids are reported as unknown
+		mockMvc.perform(MockMvcRequestBuilders.patch("/api/customer-service/customers/bulk").contentType(MediaType.APPLICATION_JSON)
+				.content(this.mapper.writeValueAsString(request)))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.affected", is(0)))
+				.andExpect(jsonPath("$.missingIds", hasSize(2)));
+	}
+
+	/**
+	 * patchCustomers fail case, where too many ids are passed
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void patchCustomers_tooManyIds() throws Exception {
+		BulkPatchRequest request = new BulkPatchRequest(new ArrayList<>(Arrays.asList(1L, 2L, 3L)), "John Farhat", null);
+
+		// mock the patchCustomers method to reject the ids
+		Mockito.when(customerService.patchCustomers(Mockito.any(BulkPatchRequest.class)))
+				.thenThrow(new InvalidRequestException("Cannot handle more than 2 customers at once."));
+
+		// Call the needed API and insure that the request is rejected
+		mockMvc.perform(MockMvcRequestBuilders.patch("/api/customer-service/customers/bulk").contentType(MediaType.APPLICATION_JSON)
+				.content(this.mapper.writeValueAsString(request)))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.status", is("BAD_REQUEST")))
+				.andExpect(jsonPath("$.message", is("Cannot handle more than 2 customers at once.")));
+	}
+
+	/**
+	 * deleteCustomers success case, where the number of deleted customers and the unknown ids should be returned
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void deleteCustomers_success() throws Exception {
+		List<Long> ids = new ArrayList<>(Arrays.asList(3L, 4L, 5L));
+
+		// mock the deleteCustomers method and return custom data
+		Mockito.when(customerService.deleteCustomers(ids)).thenReturn(new BulkMutationResult(2, new ArrayList<>(Arrays.asList(5L))));
+
+		// Call the needed API and insure that the count and the unknown id are returned
+		mockMvc.perform(MockMvcRequestBuilders.post("/api/customer-service/customers/bulk-delete").contentType(MediaType.APPLICATION_JSON)
+				.content(this.mapper.writeValueAsString(ids)))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.affected", is(2)))
+				.andExpect(jsonPath("$.missingIds", hasSize(1))).andExpect(jsonPath("$.missingIds[0]", is(5)));
+	}
+
+	/**
+	 * deleteCustomers fail case, where an empty list of ids is passed
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void deleteCustomers_emptyIds() throws Exception {
+		// mock the deleteCustomers method to reject the empty ids
+		Mockito.when(customerService.deleteCustomers(new ArrayList<>())).thenThrow(new InvalidRequestException("Ids cannot be empty."));
+
+		// Call the needed API and insure that the request is rejected
+		mockMvc.perform(MockMvcRequestBuilders.post("/api/customer-service/customers/bulk-delete").contentType(MediaType.APPLICATION_JSON)
+				.content("[]"))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.status", is("BAD_REQUEST")))
+				.andExpect(jsonPath("$.message", is("Ids cannot be empty.")));
+	}
+
+	/**
+	 * deleteCustomers fail case, where too many ids are passed
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void deleteCustomers_tooManyIds() throws Exception {
+		List<Long> ids = new ArrayList<>(Arrays.asList(1L, 2L, 3L));
+
+		// mock the deleteCustomers method to reject the ids
+		Mockito.when(customerService.deleteCustomers(ids)).thenThrow(new InvalidRequestException("Cannot handle more than 2 customers at once."));
+
+		// Call the needed API and insure that the request is rejected
+		mockMvc.perform(MockMvcRequestBuilders.post("/api/customer-service/customers/bulk-delete").contentType(MediaType.APPLICATION_JSON)
+				.content(this.mapper.writeValueAsString(ids)))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.status", is("BAD_REQUEST")))
+				.andExpect(jsonPath("$.message", is("Cannot handle more than 2 customers at once.")));
+	}
+
+	/**
+	 * exportCustomers success case, where the customers written by the service should be streamed as newline delimited json
+	 * by a request timing out after the export timeout
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void exportCustomers_success() throws Exception {
+		// mock the exportCustomers method to write two customers, one per line
+		Mockito.doAnswer(invocation -> {
+			OutputStream out = invocation.getArgument(0);
+			out.write((this.mapper.writeValueAsString(customer1) + "\n" + this.mapper.writeValueAsString(customer2) + "\n").getBytes());
+			return null;
+		}).when(customerService).exportCustomers(ArgumentMatchers.any(OutputStream.class));
+
+		// Call the needed API and insure that the export is streamed asynchronously with the export timeout
+		MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/customer-service/customers/export"))
+				.andExpect(request().asyncStarted()).andReturn();
+		assertThat(result.getRequest().getAsyncContext().getTimeout(), is(3600000L));
+
+		// insure that every customer is written on its own line
+		mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+				.andExpect(content().string(this.mapper.writeValueAsString(customer1) + "\n" + this.mapper.writeValueAsString(customer2) + "\n"));
+	}
+
 	/**
 	 * deleteCustomer fail case, where an InvalidRequestException should be thrown in case the id is negative
 	 * 
@@ -213,4 +630,13 @@ public class CustomerControllerTest {
 		}
 	}
 	
+	/**
+	 * Return the full projection of the passed customer, as returned by the repository
+	 * @param customer
+	 * @return
+	 */
+	private CustomerSummary details(Customer customer) {
+		return projectionFactory.createProjection(CustomerDetails.class, customer);
+	}
+
 }
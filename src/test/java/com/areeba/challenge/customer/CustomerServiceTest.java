@@ -0,0 +1,322 @@
+package com.areeba.challenge.customer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.areeba.challenge.customer.config.CacheConfig;
+import com.areeba.challenge.customer.dto.BulkCreateResult;
+import com.areeba.challenge.customer.dto.BulkPatchRequest;
+import com.areeba.challenge.customer.exception.CustomerNotFoundException;
+import com.areeba.challenge.customer.exception.CustomerVersionMismatchException;
+import com.areeba.challenge.customer.model.Customer;
+import com.areeba.challenge.customer.service.CustomerService;
+import com.areeba.challenge.customer.service.MobileNumberService;
+import com.areeba.challenge.customer.stub.EmbeddedCustomerApplication;
+import com.areeba.challenge.customer.stub.StubMobileValidator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Class that contain customer service test cases, against the embedded customer service and a local stub of the mobile validator
+ * 
+ * @author Hussein Zaraket
+ */
+public class CustomerServiceTest {
+
+	// unique suffix of the mobile numbers of the created customers
+	private static final AtomicLong MOBILE_SUFFIX = new AtomicLong(10000000L);
+
+	private static StubMobileValidator mobileValidator;
+
+	private static ConfigurableApplicationContext context;
+
+	private static CustomerService customerService;
+
+	private static Cache customersCache;
+
+	private static TransactionTemplate transactionTemplate;
+
+	@BeforeAll
+	public static void setUp() throws IOException {
+		mobileValidator = new StubMobileValidator(0);
+		context = EmbeddedCustomerApplication.start(mobileValidator, "spring.main.web-application-type=none");
+		customerService = context.getBean(CustomerService.class);
+		customersCache = context.getBean(CacheManager.class).getCache(CacheConfig.CUSTOMERS_CACHE);
+		transactionTemplate = context.getBean(TransactionTemplate.class);
+	}
+
+	@AfterAll
+	public static void tearDown() {
+		context.close();
+		mobileValidator.stop();
+	}
+
+	/**
+	 * deleteCustomers case, where the deleted customers should be removed from the cache
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void deleteCustomers_evictsCachedCustomers() throws Exception {
+		Customer customer = createCachedCustomer();
+
+		customerService.deleteCustomers(Arrays.asList(customer.getId()));
+
+		assertThat(customersCache.get(customer.getId()), is(nullValue()));
+		assertThrows(CustomerNotFoundException.class, () -> customerService.getCustomerById(customer.getId()));
+	}
+
+	/**
+	 * patchCustomers case, where the patched customers should be removed from the cache and read again with their new data
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void patchCustomers_evictsCachedCustomers() throws Exception {
+		Customer customer = createCachedCustomer();
+
+		customerService.patchCustomers(new BulkPatchRequest(Arrays.asList(customer.getId()), "Patched Name", null));
+
+		assertThat(customersCache.get(customer.getId()), is(nullValue()));
+		assertThat(customerService.getCustomerById(customer.getId()).getName(), is("Patched Name"));
+	}
+
+	/**
+	 * patchCustomers case inside a running transaction, where the patched customers should stay cached until it commits
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void patchCustomers_evictsAfterCommit() throws Exception {
+		Customer customer = createCachedCustomer();
+
+		transactionTemplate.executeWithoutResult(status -> {
+			try {
+				customerService.patchCustomers(new BulkPatchRequest(Arrays.asList(customer.getId()), null, "Patched Address"));
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+			// insure that the old data is not evicted before the commit, it would be cached again with the old data
+			assertThat(customersCache.get(customer.getId()), is(notNullValue()));
+		});
+
+		assertThat(customersCache.get(customer.getId()), is(nullValue()));
+		assertThat(customerService.getCustomerById(customer.getId()).getAddress(), is("Patched Address"));
+	}
+
+	/**
+	 * createCustomers case, where only the customers with a mobile number already used or data breaking a database constraint
+	 * should fail, the others of the same chunk being created
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void createCustomers_onlyConflictingCustomersFail() throws Exception {
+		Customer existingCustomer = createCachedCustomer();
+		String newMobile = nextMobile();
+		List<Customer> customers = new ArrayList<>(Arrays.asList(new Customer("John Farhat", "Lebanon, Tyre", newMobile),
+				// same mobile number as the first customer once normalized
+				new Customer("Tarek Mrad", "Lebanon, Beirut", newMobile.substring(0, 5) + " " + newMobile.substring(5)),
+				new Customer("Mohamad Falha", "Lebanon, Tripole", existingCustomer.getMobileNumber()),
+				// name longer than the column, only detected by the database
+				new Customer("Hussein Zaraket Hussein Zaraket Hussein", "Lebanon, Beirut", nextMobile()),
+				new Customer("Hussein Zaraket", "Lebanon, Beirut", nextMobile())));
+
+		List<BulkCreateResult> results = customerService.createCustomers(customers);
+
+		assertThat(results.get(0).getCode(), is(HttpStatus.CREATED.value()));
+		assertThat(results.get(1).getCode(), is(HttpStatus.CONFLICT.value()));
+		assertThat(results.get(2).getCode(), is(HttpStatus.CONFLICT.value()));
+		assertThat(results.get(3).getCode(), is(HttpStatus.BAD_REQUEST.value()));
+		assertThat(results.get(4).getCode(), is(HttpStatus.CREATED.value()));
+		// insure that the created customers are saved with the ids returned
+		assertThat(customerService.getCustomerById(results.get(0).getId()).getMobileNumber(), is(newMobile));
+		assertThat(customerService.getCustomerById(results.get(4).getId()).getName(), is("Hussein Zaraket"));
+	}
+
+	/**
+	 * updateCustomer case, where the same data with a differently formatted mobile number should neither validate the mobile
+	 * number nor update the customer
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void updateCustomer_unchangedNotSaved() throws Exception {
+		Customer customer = createCachedCustomer();
+		Long version = customerService.getCustomerVersion(customer.getId());
+		MobileNumberService mobileService = spyMobileService();
+		try {
+			String formattedMobile = customer.getMobileNumber().substring(0, 5) + "-" + customer.getMobileNumber().substring(5);
+			customerService.updateCustomer(customer.getId(), new Customer(customer.getName(), customer.getAddress(), formattedMobile));
+
+			Mockito.verify(mobileService, Mockito.never()).validateMobileNumber(Mockito.any());
+			assertThat(customerService.getCustomerVersion(customer.getId()), is(version));
+		} finally {
+			restoreMobileService();
+		}
+	}
+
+	/**
+	 * updateCustomer case, where only the name is changed and the mobile number is formatted differently, so the customer
+	 * should be updated without validating its mobile number again
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void updateCustomer_sameNormalizedMobileNotValidated() throws Exception {
+		Customer customer = createCachedCustomer();
+		Long version = customerService.getCustomerVersion(customer.getId());
+		MobileNumberService mobileService = spyMobileService();
+		try {
+			String formattedMobile = "(" + customer.getMobileNumber().substring(0, 5) + ") " + customer.getMobileNumber().substring(5);
+			Customer updatedCustomer = customerService.updateCustomer(customer.getId(),
+					new Customer("John Farhat", customer.getAddress(), formattedMobile));
+
+			Mockito.verify(mobileService, Mockito.never()).validateMobileNumber(Mockito.any());
+			assertThat(updatedCustomer.getName(), is("John Farhat"));
+			assertThat(updatedCustomer.getMobileNumber(), is(customer.getMobileNumber()));
+			assertThat(customerService.getCustomerVersion(customer.getId()), is(version + 1));
+		} finally {
+			restoreMobileService();
+		}
+	}
+
+	/**
+	 * updateCustomer case, where the mobile number is changed so it should be validated once before the customer is updated
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void updateCustomer_changedMobileValidated() throws Exception {
+		Customer customer = createCachedCustomer();
+		MobileNumberService mobileService = spyMobileService();
+		try {
+			String newMobile = nextMobile();
+			Customer updatedCustomer = customerService.updateCustomer(customer.getId(),
+					new Customer(customer.getName(), customer.getAddress(), newMobile));
+
+			Mockito.verify(mobileService, Mockito.times(1)).validateMobileNumber(newMobile);
+			assertThat(updatedCustomer.getMobileNumber(), is(newMobile));
+		} finally {
+			restoreMobileService();
+		}
+	}
+
+	/**
+	 * updateCustomer fail case, where the expected version is not the current one so neither the mobile number should be
+	 * validated nor the customer updated
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void updateCustomer_staleVersionRefused() throws Exception {
+		Customer customer = createCachedCustomer();
+		Long version = customerService.getCustomerVersion(customer.getId());
+		MobileNumberService mobileService = spyMobileService();
+		try {
+			Customer staleCustomer = new Customer("John Farhat", customer.getAddress(), nextMobile());
+			assertThrows(CustomerVersionMismatchException.class,
+					() -> customerService.updateCustomer(customer.getId(), staleCustomer, version - 1));
+
+			Mockito.verify(mobileService, Mockito.never()).validateMobileNumber(Mockito.any());
+			assertThat(customerService.getCustomerVersion(customer.getId()), is(version));
+		} finally {
+			restoreMobileService();
+		}
+	}
+
+	/**
+	 * exportCustomers case, where every customer should be written as json on its own line ordered by id
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void exportCustomers_newlineDelimitedJson() throws Exception {
+		Customer firstCustomer = customerService.createCustomer(new Customer("Hussein Zaraket", "Lebanon, Beirut", nextMobile()));
+		Customer secondCustomer = customerService.createCustomer(new Customer("John Farhat", "Lebanon, Tyre", nextMobile()));
+		ObjectMapper mapper = context.getBean(ObjectMapper.class);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		customerService.exportCustomers(out);
+
+		// insure that the output ends with a new line and that each line is one customer
+		String export = out.toString(StandardCharsets.UTF_8);
+		assertThat(export.endsWith("\n"), is(true));
+		List<Long> ids = new ArrayList<>();
+		List<String> mobileNumbers = new ArrayList<>();
+		for (String line : export.split("\n")) {
+			Customer customer = mapper.readValue(line, Customer.class);
+			if (!ids.isEmpty()) {
+				assertThat(customer.getId(), greaterThan(ids.get(ids.size() - 1)));
+			}
+			ids.add(customer.getId());
+			mobileNumbers.add(customer.getMobileNumber());
+		}
+		assertThat(ids, hasItems(firstCustomer.getId(), secondCustomer.getId()));
+		assertThat(mobileNumbers, hasItems(firstCustomer.getMobileNumber(), secondCustomer.getMobileNumber()));
+	}
+
+	/**
+	 * Create a customer with a new valid mobile number and load it in the cache
+	 * @return
+	 * @throws Exception
+	 */
+	private Customer createCachedCustomer() throws Exception {
+		Customer customer = customerService.createCustomer(new Customer("Hussein Zaraket", "Lebanon, Beirut", nextMobile()));
+		customersCache.evict(customer.getId());
+		customerService.getCustomerById(customer.getId());
+		assertThat(customersCache.get(customer.getId()), is(notNullValue()));
+		return customer;
+	}
+
+	/**
+	 * Return a valid mobile number not used by any customer yet
+	 * @return
+	 */
+	private String nextMobile() {
+		return "009617" + MOBILE_SUFFIX.incrementAndGet();
+	}
+
+	/**
+	 * Replace the mobile number service used by the customer service by a spy of it, so its calls can be verified
+	 * @return
+	 */
+	private MobileNumberService spyMobileService() {
+		MobileNumberService mobileService = Mockito.spy(AopTestUtils.<MobileNumberService>getTargetObject(context.getBean(MobileNumberService.class)));
+		ReflectionTestUtils.setField(AopTestUtils.<CustomerService>getTargetObject(customerService), "mobileService", mobileService);
+		return mobileService;
+	}
+
+	/**
+	 * Give back its mobile number service to the customer service
+	 */
+	private void restoreMobileService() {
+		ReflectionTestUtils.setField(AopTestUtils.<CustomerService>getTargetObject(customerService), "mobileService",
+				context.getBean(MobileNumberService.class));
+	}
+
+}
@@ -0,0 +1,223 @@
+package com.areeba.challenge.customer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import com.areeba.challenge.customer.exception.InvalidMobileException;
+import com.areeba.challenge.customer.exception.MobileValidatorUnavailableException;
+import com.areeba.challenge.customer.service.MobileNumberService;
+import com.areeba.challenge.customer.stub.StubMobileValidator;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Class that contain mobile number service concurrency test cases, against a local stub of the mobile validator
+ * 
+ * @author Hussein Zaraket
+ */
+public class MobileNumberServiceTest {
+
+	// number of concurrent validations
+	private static final int CALLERS = 200;
+
+	// mobile numbers validated concurrently, formatted ones share the validation of their normalized number
+	private static final String[] VALID_MOBILES = { "0096170000001", "00961 70 000001", "0096170000002", "(00961) 70-000002" };
+	private static final String[] INVALID_MOBILES = { "12345", "12-345", "67890", "678 90" };
+
+	// mobile validator stub, slow enough for the concurrent validations to overlap
+	private StubMobileValidator mobileValidator;
+
+	private MeterRegistry meterRegistry;
+
+	private MobileNumberService mobileNumberService;
+
+	private ExecutorService executor;
+
+	@BeforeEach
+	public void setUp() throws IOException {
+		mobileValidator = new StubMobileValidator(200);
+		meterRegistry = new SimpleMeterRegistry();
+		mobileNumberService = new MobileNumberService();
+		ReflectionTestUtils.setField(mobileNumberService, "mobileValidatorUrl", mobileValidator.getUrl());
+		ReflectionTestUtils.setField(mobileNumberService, "mobileValidatorRestTemplate", new RestTemplate());
+		ReflectionTestUtils.setField(mobileNumberService, "mobileValidationCache", Caffeine.newBuilder().build());
+		ReflectionTestUtils.setField(mobileNumberService, "mobileValidatorCircuitBreaker", CircuitBreaker.ofDefaults("mobileValidator"));
+		ReflectionTestUtils.setField(mobileNumberService, "mobileValidatorBulkhead",
+				Bulkhead.of("mobileValidator", BulkheadConfig.custom().maxConcurrentCalls(CALLERS).build()));
+		ReflectionTestUtils.setField(mobileNumberService, "meterRegistry", meterRegistry);
+		executor = Executors.newFixedThreadPool(CALLERS);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		executor.shutdownNow();
+		mobileValidator.stop();
+	}
+
+	/**
+	 * validateMobileNumber concurrent case, where every caller should get the result of its mobile number
+	 * while the validator is called once per normalized mobile number
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void validateMobileNumber_concurrentCallsCoalesced() throws Exception {
+		List<String> mobiles = new ArrayList<>(CALLERS);
+		List<Boolean> expected = new ArrayList<>(CALLERS);
+		for (int i = 0; i < CALLERS; i++) {
+			boolean valid = i % 2 == 0;
+			String[] candidates = valid ? VALID_MOBILES : INVALID_MOBILES;
+			mobiles.add(candidates[(i / 2) % candidates.length]);
+			expected.add(valid);
+		}
+
+		List<Future<Boolean>> results = validateConcurrently(mobiles);
+
+		// insure that no result is lost nor mixed with the one of another mobile number
+		for (int i = 0; i < CALLERS; i++) {
+			assertThat(mobiles.get(i), results.get(i).get(10, TimeUnit.SECONDS), is(expected.get(i)));
+		}
+		// insure that the validator is called once per normalized mobile number and the other calls waited for it
+		assertThat(mobileValidator.getRequestCount(), is(4));
+		assertThat(callCount("issued"), is(4.0));
+		assertThat(callCount("coalesced"), greaterThan(0.0));
+
+		// insure that the results are cached once the validations completed
+		mobileNumberService.validateMobileNumber("0096170000001");
+		assertThat(mobileValidator.getRequestCount(), is(4));
+	}
+
+	/**
+	 * validateMobileNumber concurrent fail case, where the failure of the validator call should be received by every caller
+	 * sharing it as an unavailable validator and not be cached
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void validateMobileNumber_concurrentFailureShared() throws Exception {
+		// no validator is listening on the url anymore so every call fails
+		StubMobileValidator stoppedValidator = new StubMobileValidator(0);
+		ReflectionTestUtils.setField(mobileNumberService, "mobileValidatorUrl", stoppedValidator.getUrl());
+		stoppedValidator.stop();
+		List<String> mobiles = new ArrayList<>(CALLERS);
+		for (int i = 0; i < CALLERS; i++) {
+			mobiles.add(VALID_MOBILES[0]);
+		}
+
+		List<Future<Boolean>> results = validateConcurrently(mobiles);
+
+		// insure that every caller fail and none of them is left waiting
+		for (Future<Boolean> result : results) {
+			try {
+				result.get(10, TimeUnit.SECONDS);
+				fail("Exception expected");
+			} catch (ExecutionException e) {
+				assertThat(e.getCause(), instanceOf(MobileValidatorUnavailableException.class));
+			}
+		}
+		// insure that every caller either issued a call or shared one, nothing being cached
+		assertThat(callCount("issued") + callCount("coalesced"), is((double) CALLERS));
+	}
+
+	/**
+	 * validateMobileNumber concurrent error case, where an error thrown by the validator call should be received by every caller
+	 * sharing it instead of leaving them waiting
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void validateMobileNumber_concurrentErrorShared() throws Exception {
+		RestTemplate failingRestTemplate = Mockito.mock(RestTemplate.class);
+		Mockito.when(failingRestTemplate.getForObject(Mockito.anyString(), Mockito.eq(HashMap.class), Mockito.<Object>any()))
+				.thenAnswer(invocation -> {
+					// slow enough for the other callers to share the call
+					Thread.sleep(200);
+					throw new Error("Validator call crashed");
+				});
+		ReflectionTestUtils.setField(mobileNumberService, "mobileValidatorRestTemplate", failingRestTemplate);
+		List<String> mobiles = new ArrayList<>(CALLERS);
+		for (int i = 0; i < CALLERS; i++) {
+			mobiles.add(VALID_MOBILES[0]);
+		}
+
+		List<Future<Boolean>> results = validateConcurrently(mobiles);
+
+		// insure that every caller receive the error and none of them is left waiting
+		for (Future<Boolean> result : results) {
+			try {
+				result.get(10, TimeUnit.SECONDS);
+				fail("Exception expected");
+			} catch (ExecutionException e) {
+				assertThat(e.getCause(), instanceOf(Error.class));
+			}
+		}
+		assertThat(callCount("coalesced"), greaterThan(0.0));
+	}
+
+	/**
+	 * Validate the passed mobile numbers at the same time, each one by its own thread
+	 * @param mobiles
+	 * @return true for each valid mobile number, false for each invalid one
+	 * @throws InterruptedException
+	 */
+	private List<Future<Boolean>> validateConcurrently(List<String> mobiles) throws InterruptedException {
+		CountDownLatch ready = new CountDownLatch(mobiles.size());
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Boolean>> results = new ArrayList<>(mobiles.size());
+		for (String mobile : mobiles) {
+			Callable<Boolean> validation = () -> {
+				ready.countDown();
+				start.await();
+				try {
+					mobileNumberService.validateMobileNumber(mobile);
+					return true;
+				} catch (InvalidMobileException e) {
+					return false;
+				}
+			};
+			results.add(executor.submit(validation));
+		}
+		ready.await(10, TimeUnit.SECONDS);
+		start.countDown();
+		return results;
+	}
+
+	/**
+	 * Return the number of validations that issued or coalesced a call to the mobile validator
+	 * @param call
+	 * @return
+	 */
+	private double callCount(String call) {
+		Counter counter = meterRegistry.find("mobile.validation.calls").tag("call", call).counter();
+		return null == counter ? 0 : counter.count();
+	}
+
+}
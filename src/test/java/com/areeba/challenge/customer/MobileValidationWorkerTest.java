@@ -0,0 +1,186 @@
+package com.areeba.challenge.customer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.concurrent.Executor;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.areeba.challenge.customer.exception.InvalidMobileException;
+import com.areeba.challenge.customer.exception.MobileValidatorUnavailableException;
+import com.areeba.challenge.customer.model.Customer;
+import com.areeba.challenge.customer.model.MobileStatus;
+import com.areeba.challenge.customer.repository.CustomerRepository;
+import com.areeba.challenge.customer.service.CustomerService;
+import com.areeba.challenge.customer.service.MobileNumberService;
+import com.areeba.challenge.customer.service.MobileValidationWorker;
+
+/**
+ * Class that contain mobile validation worker test cases, the pending customers being claimed from a mocked repository
+ * and validated on the calling thread
+ * 
+ * @author Hussein Zaraket
+ */
+public class MobileValidationWorkerTest {
+
+	// backoff after the first failed validation, doubled by each failure
+	private static final Duration BACKOFF = Duration.ofSeconds(5);
+
+	private static final Duration MAX_BACKOFF = Duration.ofMinutes(10);
+
+	private static final int BATCH_SIZE = 2;
+
+	private CustomerRepository customerRepository;
+
+	private CustomerService customerService;
+
+	private MobileNumberService mobileService;
+
+	private MobileValidationWorker worker;
+
+	@BeforeEach
+	public void setUp() {
+		customerRepository = Mockito.mock(CustomerRepository.class);
+		customerService = Mockito.mock(CustomerService.class);
+		mobileService = Mockito.mock(MobileNumberService.class);
+		worker = new MobileValidationWorker();
+		ReflectionTestUtils.setField(worker, "customerRepository", customerRepository);
+		ReflectionTestUtils.setField(worker, "customerService", customerService);
+		ReflectionTestUtils.setField(worker, "mobileService", mobileService);
+		ReflectionTestUtils.setField(worker, "transactionTemplate", new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)));
+		ReflectionTestUtils.setField(worker, "pendingMobileValidationExecutor", (Executor) Runnable::run);
+		ReflectionTestUtils.setField(worker, "batchSize", BATCH_SIZE);
+		ReflectionTestUtils.setField(worker, "drainBudget", Duration.ofSeconds(10));
+		ReflectionTestUtils.setField(worker, "lease", Duration.ofMinutes(5));
+		ReflectionTestUtils.setField(worker, "backoff", BACKOFF);
+		ReflectionTestUtils.setField(worker, "maxBackoff", MAX_BACKOFF);
+	}
+
+	/**
+	 * drain case, where the valid mobile number should become VALID and the invalid one INVALID
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void drain_pendingBecomesValidOrInvalid() throws Exception {
+		Customer validCustomer = pendingCustomer(1L, "0096170745563", 0);
+		Customer invalidCustomer = pendingCustomer(2L, "123", 0);
+		Mockito.when(customerRepository.findPendingMobileForUpdate(any(Date.class), anyInt()))
+				.thenReturn(new ArrayList<>(Arrays.asList(validCustomer, invalidCustomer)), Collections.emptyList());
+		Mockito.doThrow(new InvalidMobileException("123")).when(mobileService).validateMobileNumber("123");
+
+		worker.drain();
+
+		// insure that the claimed customers are deferred by the lease while validated, then get their status
+		Mockito.verify(customerRepository).deferPendingMobile(eq(Arrays.asList(1L, 2L)), any(Date.class));
+		Mockito.verify(customerService).completeMobileValidation(1L, "0096170745563", MobileStatus.VALID);
+		Mockito.verify(customerService).completeMobileValidation(2L, "123", MobileStatus.INVALID);
+		Mockito.verify(customerRepository, Mockito.never()).retryPendingMobile(any(), any(), any());
+	}
+
+	/**
+	 * drain case, where a mobile number that cannot be validated should stay PENDING and be retried after the backoff
+	 * doubled by each failed attempt
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void drain_unavailableValidatorRetriedWithBackoff() throws Exception {
+		Customer customer = pendingCustomer(1L, "0096170745563", 2);
+		Mockito.when(customerRepository.findPendingMobileForUpdate(any(Date.class), anyInt()))
+				.thenReturn(new ArrayList<>(Collections.singletonList(customer)));
+		Mockito.doThrow(new MobileValidatorUnavailableException()).when(mobileService).validateMobileNumber("0096170745563");
+
+		long before = System.currentTimeMillis();
+		worker.drain();
+		long after = System.currentTimeMillis();
+
+		// insure that the next validation is scheduled after backoff * 2^attempts and the status is not changed
+		Mockito.verify(customerService, Mockito.never()).completeMobileValidation(any(), any(), any());
+		assertThat(nextValidation(1L, "0096170745563"), allOf(greaterThanOrEqualTo(before + BACKOFF.toMillis() * 4),
+				lessThanOrEqualTo(after + BACKOFF.toMillis() * 4)));
+	}
+
+	/**
+	 * drain case, where the backoff of a mobile number that failed many times should not exceed the maximum one
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void drain_retryBackoffCapped() throws Exception {
+		Customer customer = pendingCustomer(1L, "0096170745563", 40);
+		Mockito.when(customerRepository.findPendingMobileForUpdate(any(Date.class), anyInt()))
+				.thenReturn(new ArrayList<>(Collections.singletonList(customer)));
+		Mockito.doThrow(new MobileValidatorUnavailableException()).when(mobileService).validateMobileNumber("0096170745563");
+
+		long before = System.currentTimeMillis();
+		worker.drain();
+		long after = System.currentTimeMillis();
+
+		assertThat(nextValidation(1L, "0096170745563"), allOf(greaterThanOrEqualTo(before + MAX_BACKOFF.toMillis()),
+				lessThanOrEqualTo(after + MAX_BACKOFF.toMillis())));
+	}
+
+	/**
+	 * drain case, where a run should stop claiming full batches once its budget is spent so it does not hold its scheduler thread
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void drain_stopsWhenBudgetSpent() throws Exception {
+		ReflectionTestUtils.setField(worker, "drainBudget", Duration.ZERO);
+		// a full batch is always pending
+		Mockito.when(customerRepository.findPendingMobileForUpdate(any(Date.class), anyInt())).thenAnswer(
+				invocation -> new ArrayList<>(Arrays.asList(pendingCustomer(1L, "0096170745563", 0), pendingCustomer(2L, "0096170444222", 0))));
+
+		worker.drain();
+
+		Mockito.verify(customerRepository, Mockito.times(1)).findPendingMobileForUpdate(any(Date.class), anyInt());
+		Mockito.verify(customerRepository, Mockito.times(1)).deferPendingMobile(anyList(), any(Date.class));
+	}
+
+	/**
+	 * Create a customer having a pending mobile number that failed to be validated the passed number of times
+	 * @param id
+	 * @param mobileNumber
+	 * @param attempts
+	 * @return
+	 */
+	private Customer pendingCustomer(Long id, String mobileNumber, int attempts) {
+		Customer customer = new Customer(id, "Hussein Zaraket", "Lebanon, Beirut", mobileNumber);
+		customer.setMobileStatus(MobileStatus.PENDING);
+		customer.setMobileValidationAttempts(attempts);
+		return customer;
+	}
+
+	/**
+	 * Return the time the next validation of the customer mobile number is scheduled at
+	 * @param id
+	 * @param mobileNumber
+	 * @return
+	 */
+	private long nextValidation(Long id, String mobileNumber) {
+		ArgumentCaptor<Date> nextValidation = ArgumentCaptor.forClass(Date.class);
+		Mockito.verify(customerRepository).retryPendingMobile(eq(id), eq(mobileNumber), nextValidation.capture());
+		return nextValidation.getValue().getTime();
+	}
+
+}
@@ -0,0 +1,119 @@
+package com.areeba.challenge.customer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.areeba.challenge.customer.config.ReplicaRoutingDataSource;
+
+/**
+ * Class that contain replica routing data source test cases, each database being an H2 stand-in holding its own name
+ * 
+ * @author Hussein Zaraket
+ */
+public class ReplicaRoutingDataSourceTest {
+
+	// query of the name of the database a transaction is sent to
+	private static final String NAME_QUERY = "select name from database_name";
+
+	/**
+	 * Read only transactions should be sent to the healthy replicas in round robin and the others to the primary
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void readOnlyTransactions_sentToReplicasInRoundRobin() throws Exception {
+		ReplicaRoutingDataSource routingDataSource = routingDataSource("select 0", "replica1", "replica2");
+		routingDataSource.checkReplicas();
+
+		assertThat(routingDataSource.getHealthyReplicas(), contains("replica1", "replica2"));
+		assertThat(databaseName(routingDataSource, true), is("replica1"));
+		assertThat(databaseName(routingDataSource, true), is("replica2"));
+		assertThat(databaseName(routingDataSource, true), is("replica1"));
+		assertThat(databaseName(routingDataSource, false), is("primary"));
+	}
+
+	/**
+	 * Read only transactions should be sent to the primary while the replicas are not checked yet
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void readOnlyTransactions_sentToPrimaryBeforeCheck() throws Exception {
+		ReplicaRoutingDataSource routingDataSource = routingDataSource("select 0", "replica3");
+
+		assertThat(databaseName(routingDataSource, true), is("primary"));
+	}
+
+	/**
+	 * Read only transactions should be sent to the primary when the replica lags more than the maximum lag
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void readOnlyTransactions_sentToPrimaryWhenReplicaLags() throws Exception {
+		ReplicaRoutingDataSource routingDataSource = routingDataSource("select 60", "replica4");
+		routingDataSource.checkReplicas();
+
+		assertThat(routingDataSource.getHealthyReplicas(), is(empty()));
+		assertThat(databaseName(routingDataSource, true), is("primary"));
+	}
+
+	/**
+	 * Create the routing data source between a primary and the passed replicas, each database holding its name
+	 * @param lagQuery
+	 * @param replicaNames
+	 * @return
+	 */
+	private ReplicaRoutingDataSource routingDataSource(String lagQuery, String... replicaNames) {
+		Map<String, DataSource> replicas = new LinkedHashMap<>();
+		for (String replicaName : replicaNames) {
+			replicas.put(replicaName, database(replicaName));
+		}
+		ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(database("primary-" + replicaNames[0]), replicas,
+				lagQuery, Duration.ofSeconds(10));
+		routingDataSource.afterPropertiesSet();
+		return routingDataSource;
+	}
+
+	/**
+	 * Create an H2 in-memory database holding the passed name, the primary ones being named primary
+	 * @param name
+	 * @return
+	 */
+	private DataSource database(String name) {
+		DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("create table if not exists database_name (name varchar(20))");
+		jdbcTemplate.update("insert into database_name (name) values (?)", name.startsWith("primary") ? "primary" : name);
+		return dataSource;
+	}
+
+	/**
+	 * Return the name of the database a transaction is sent to
+	 * @param routingDataSource
+	 * @param readOnly
+	 * @return
+	 */
+	private String databaseName(ReplicaRoutingDataSource routingDataSource, boolean readOnly) {
+		DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+		TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+		transactionTemplate.setReadOnly(readOnly);
+		return transactionTemplate.execute(status -> new JdbcTemplate(dataSource).queryForObject(NAME_QUERY, String.class));
+	}
+
+}
@@ -0,0 +1,59 @@
+package com.areeba.challenge.customer.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.areeba.challenge.customer.model.Customer;
+
+/**
+ * Benchmark of the customer hashCode and equals, used by the hash based collections and the update dirty check
+ * 
+ * @author Hussein Zaraket
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CustomerEqualityBenchmark {
+
+	private Customer customer;
+
+	private Customer equalCustomer;
+
+	private Customer otherCustomer;
+
+	@Setup
+	public void setUp() {
+		customer = new Customer(1L, "Hussein Zaraket", "Beirut, Lebanon", "0096170123456");
+		equalCustomer = new Customer(1L, "Hussein Zaraket", "Beirut, Lebanon", "0096170123456");
+		otherCustomer = new Customer(1L, "Hussein Zaraket", "Saida, Lebanon", "0096170123456");
+	}
+
+	@Benchmark
+	public int hashCodeOf() {
+		return customer.hashCode();
+	}
+
+	@Benchmark
+	public boolean equalsEqual() {
+		return customer.equals(equalCustomer);
+	}
+
+	@Benchmark
+	public boolean equalsDifferent() {
+		return customer.equals(otherCustomer);
+	}
+
+}
@@ -0,0 +1,57 @@
+package com.areeba.challenge.customer.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.areeba.challenge.customer.model.Customer;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Benchmark of the customer json serialization and deserialization, using an object mapper configured as the one of spring mvc
+ * 
+ * @author Hussein Zaraket
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CustomerJsonBenchmark {
+
+	private ObjectMapper objectMapper;
+
+	private Customer customer;
+
+	private String customerJson;
+
+	@Setup
+	public void setUp() throws JsonProcessingException {
+		objectMapper = Jackson2ObjectMapperBuilder.json().build();
+		customer = new Customer(1L, "Hussein Zaraket", "Beirut, Lebanon", "0096170123456");
+		customerJson = objectMapper.writeValueAsString(customer);
+	}
+
+	@Benchmark
+	public String serialize() throws JsonProcessingException {
+		return objectMapper.writeValueAsString(customer);
+	}
+
+	@Benchmark
+	public Customer deserialize() throws JsonProcessingException {
+		return objectMapper.readValue(customerJson, Customer.class);
+	}
+
+}
@@ -0,0 +1,134 @@
+package com.areeba.challenge.customer.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.areeba.challenge.customer.dto.BulkCreateResult;
+import com.areeba.challenge.customer.exception.CustomerNotFoundException;
+import com.areeba.challenge.customer.exception.InvalidMobileException;
+import com.areeba.challenge.customer.exception.InvalidRequestException;
+import com.areeba.challenge.customer.model.Customer;
+import com.areeba.challenge.customer.repository.CustomerRepository;
+import com.areeba.challenge.customer.service.CustomerService;
+import com.areeba.challenge.customer.stub.EmbeddedCustomerApplication;
+import com.areeba.challenge.customer.stub.StubMobileValidator;
+
+/**
+ * Benchmark of the customer service against an in-memory database and a local stub of the mobile validator.
+ * Compare creating customers one by one with the bulk creation, the insert benchmarks are reported per customer.
+ * Each benchmark runs with one customer id allocated per sequence call and with pooled blocks of ids
+ * 
+ * @author Hussein Zaraket
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CustomerServiceBenchmark {
+
+	private static final int BATCH_SIZE = 100;
+
+	// number of customer ids allocated per customer_seq call, the in-memory sequence is created with the same increment
+	@Param({ "1", "50" })
+	public int idIncrementSize;
+
+	// used to generate unique mobile numbers, as the mobile number is unique
+	private final AtomicLong mobileSequence = new AtomicLong();
+
+	// used to alternate the address so every update is persisted
+	private final AtomicLong updateSequence = new AtomicLong();
+
+	private StubMobileValidator mobileValidator;
+
+	private ConfigurableApplicationContext context;
+
+	private CustomerService customerService;
+
+	private CustomerRepository customerRepository;
+
+	private Customer existingCustomer;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException, InvalidMobileException {
+		mobileValidator = new StubMobileValidator(0);
+		context = EmbeddedCustomerApplication.start(mobileValidator, "spring.main.web-application-type=none",
+				"spring.jpa.properties.hibernate.id.customer_seq.increment_size=" + idIncrementSize);
+		customerService = context.getBean(CustomerService.class);
+		customerRepository = context.getBean(CustomerRepository.class);
+		existingCustomer = customerService.createCustomer(newCustomer());
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+		mobileValidator.stop();
+	}
+
+	@Benchmark
+	public Customer createCustomer() throws InvalidMobileException {
+		return customerService.createCustomer(newCustomer());
+	}
+
+	@Benchmark
+	public Customer getCustomerById() throws CustomerNotFoundException, InvalidRequestException {
+		return customerService.getCustomerById(existingCustomer.getId());
+	}
+
+	@Benchmark
+	public Customer getCustomerByIdUncached() {
+		return customerRepository.findById(existingCustomer.getId()).orElse(null);
+	}
+
+	@Benchmark
+	public Customer updateCustomer() throws InvalidMobileException, CustomerNotFoundException, InvalidRequestException {
+		String address = updateSequence.incrementAndGet() % 2 == 0 ? "Beirut, Lebanon" : "Saida, Lebanon";
+		Customer customer = new Customer(existingCustomer.getName(), address, existingCustomer.getMobileNumber());
+		return customerService.updateCustomer(existingCustomer.getId(), customer);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH_SIZE)
+	public List<Customer> insertOneByOne() throws InvalidMobileException {
+		List<Customer> created = new ArrayList<>(BATCH_SIZE);
+		for (int i = 0; i < BATCH_SIZE; i++) {
+			created.add(customerService.createCustomer(newCustomer()));
+		}
+		return created;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH_SIZE)
+	public List<BulkCreateResult> insertBulk() throws InvalidRequestException {
+		List<Customer> customers = new ArrayList<>(BATCH_SIZE);
+		for (int i = 0; i < BATCH_SIZE; i++) {
+			customers.add(newCustomer());
+		}
+		return customerService.createCustomers(customers);
+	}
+
+	private Customer newCustomer() {
+		return new Customer("Hussein Zaraket", "Beirut, Lebanon", String.format("009617%08d", mobileSequence.incrementAndGet()));
+	}
+
+}
@@ -0,0 +1,96 @@
+package com.areeba.challenge.customer.benchmark;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.client.RestTemplate;
+
+import com.areeba.challenge.customer.exception.InvalidMobileException;
+import com.areeba.challenge.customer.service.MobileNumberService;
+import com.areeba.challenge.customer.stub.EmbeddedCustomerApplication;
+import com.areeba.challenge.customer.stub.StubMobileValidator;
+
+/**
+ * Benchmark of the mobile number validation against a local stub of the mobile validator.
+ * Compare the cached validation with the remote one, and the pooled rest template with a rest template created per call
+ * 
+ * @author Hussein Zaraket
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MobileNumberServiceBenchmark {
+
+	private static final String CACHED_MOBILE = "0096170123456";
+
+	// used to generate mobile numbers that are not cached yet
+	private final AtomicLong mobileSequence = new AtomicLong();
+
+	private StubMobileValidator mobileValidator;
+
+	private ConfigurableApplicationContext context;
+
+	private MobileNumberService mobileNumberService;
+
+	private RestTemplate mobileValidatorRestTemplate;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException, InvalidMobileException {
+		mobileValidator = new StubMobileValidator(0);
+		context = EmbeddedCustomerApplication.start(mobileValidator, "spring.main.web-application-type=none",
+				"mobileValidator.cache.maxSize=1000000");
+		mobileNumberService = context.getBean(MobileNumberService.class);
+		mobileValidatorRestTemplate = context.getBean("mobileValidatorRestTemplate", RestTemplate.class);
+		mobileNumberService.validateMobileNumber(CACHED_MOBILE);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+		mobileValidator.stop();
+	}
+
+	@Benchmark
+	public void validateCached() throws InvalidMobileException {
+		mobileNumberService.validateMobileNumber(CACHED_MOBILE);
+	}
+
+	@Benchmark
+	public void validateUncached() throws InvalidMobileException {
+		mobileNumberService.validateMobileNumber(nextMobile());
+	}
+
+	@Benchmark
+	public HashMap<?, ?> pooledRestTemplate() {
+		return mobileValidatorRestTemplate.getForObject(mobileValidator.getUrl(), HashMap.class, nextMobile());
+	}
+
+	@Benchmark
+	public HashMap<?, ?> perCallRestTemplate() {
+		// a new connection is opened for every call, as before the pooled http client
+		return new RestTemplate().getForObject(mobileValidator.getUrl(), HashMap.class, nextMobile());
+	}
+
+	private String nextMobile() {
+		return String.format("009617%08d", mobileSequence.incrementAndGet());
+	}
+
+}
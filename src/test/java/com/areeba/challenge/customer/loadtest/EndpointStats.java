@@ -0,0 +1,65 @@
+package com.areeba.challenge.customer.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Latencies and errors recorded for one endpoint during the load test
+ * 
+ * @author Hussein Zaraket
+ */
+public class EndpointStats {
+
+	private final String endpoint;
+
+	// latencies in nanoseconds, grown when full
+	private long[] latencies = new long[1024];
+
+	private int count;
+
+	private int errors;
+
+	public EndpointStats(String endpoint) {
+		this.endpoint = endpoint;
+	}
+
+	/**
+	 * Record a call of the endpoint
+	 * @param latencyNanos
+	 * @param error true in case the call failed or returned an error response
+	 */
+	public synchronized void record(long latencyNanos, boolean error) {
+		if (count == latencies.length) {
+			latencies = Arrays.copyOf(latencies, count * 2);
+		}
+		latencies[count++] = latencyNanos;
+		if (error) {
+			errors++;
+		}
+	}
+
+	/**
+	 * Return a line of the report with the throughput and the latency percentiles in milliseconds
+	 * @param durationSeconds duration of the load test
+	 * @return
+	 */
+	public synchronized String report(double durationSeconds) {
+		long[] sorted = Arrays.copyOf(latencies, count);
+		Arrays.sort(sorted);
+		return String.format("%-28s %8d %6d %10.1f %8.2f %8.2f %8.2f %8.2f", endpoint, count, errors, count / durationSeconds,
+				percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99), percentile(sorted, 100));
+	}
+
+	public static String header() {
+		return String.format("%-28s %8s %6s %10s %8s %8s %8s %8s", "endpoint", "calls", "errors", "calls/s", "p50 ms", "p95 ms",
+				"p99 ms", "max ms");
+	}
+
+	private static double percentile(long[] sorted, int percentile) {
+		if (sorted.length == 0) {
+			return 0;
+		}
+		int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+		return sorted[Math.max(index, 0)] / 1_000_000.0;
+	}
+
+}
@@ -0,0 +1,268 @@
+package com.areeba.challenge.customer.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.areeba.challenge.customer.stub.EmbeddedCustomerApplication;
+import com.areeba.challenge.customer.stub.StubMobileValidator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Drive a mixed read and write traffic on the customer service and report the throughput and the latency percentiles per endpoint.
+ * By default the service is started against an in-memory H2 database in PostgreSQL mode and a local stub of the mobile validator,
+ * unless loadtest.baseUrl is set to target an already running service.
+ * The heap used by the service and the resident set size of its process are sampled every second while the stats are recorded,
+ * loadtest.pid should be set to the pid of an already running service for its resident set size to be sampled. The embedded service
+ * shares the process of the load test, so its resident set size includes the load test itself.
+ * 
+ * Settings are read from system properties:
+ * loadtest.baseUrl, loadtest.pid, loadtest.threads, loadtest.durationSeconds, loadtest.warmupSeconds, loadtest.writeRatio,
+ * loadtest.seedCustomers and loadtest.validatorLatencyMillis
+ * 
+ * @author Hussein Zaraket
+ */
+public class LoadTestRunner {
+
+	private static final String CUSTOMERS_PATH = "/api/customer-service/customers";
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	// threads of the http client, shut down once the load test ends so the process can exit
+	private final ExecutorService httpExecutor;
+
+	private final HttpClient httpClient;
+
+	private final String baseUrl;
+
+	private final double writeRatio;
+
+	// ids of the customers created during the load test, used by the reads and updates
+	private final List<Long> customerIds = Collections.synchronizedList(new ArrayList<>());
+
+	// mobile number of the created customers by id, used by the updates and the search by mobile number
+	private final Map<Long, String> mobileNumbers = new ConcurrentHashMap<>();
+
+	// used to generate unique mobile numbers
+	private final AtomicLong mobileSequence = new AtomicLong();
+
+	private final Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+
+	// stats are only recorded after the warmup
+	private volatile boolean recording;
+
+	public LoadTestRunner(String baseUrl, int threads, double writeRatio) {
+		this.baseUrl = baseUrl;
+		this.writeRatio = writeRatio;
+		this.httpExecutor = Executors.newFixedThreadPool(threads);
+		this.httpClient = HttpClient.newBuilder().executor(httpExecutor).connectTimeout(Duration.ofSeconds(5)).build();
+	}
+
+	public static void main(String[] args) throws Exception {
+		String baseUrl = System.getProperty("loadtest.baseUrl", "");
+		long pid = Long.getLong("loadtest.pid", baseUrl.isEmpty() ? ProcessHandle.current().pid() : 0);
+		int threads = Integer.getInteger("loadtest.threads", 50);
+		int durationSeconds = Integer.getInteger("loadtest.durationSeconds", 60);
+		int warmupSeconds = Integer.getInteger("loadtest.warmupSeconds", 10);
+		double writeRatio = Double.parseDouble(System.getProperty("loadtest.writeRatio", "0.2"));
+		int seedCustomers = Integer.getInteger("loadtest.seedCustomers", 1000);
+		long validatorLatencyMillis = Long.getLong("loadtest.validatorLatencyMillis", 50);
+
+		StubMobileValidator mobileValidator = null;
+		ConfigurableApplicationContext context = null;
+		if (baseUrl.isEmpty()) {
+			mobileValidator = new StubMobileValidator(validatorLatencyMillis);
+			context = EmbeddedCustomerApplication.start(mobileValidator, "server.port=0");
+			baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+		}
+		LoadTestRunner runner = new LoadTestRunner(baseUrl, threads, writeRatio);
+		try {
+			System.out.printf("Load testing %s with %d threads for %ds after %ds of warmup, write ratio %.2f%n", baseUrl, threads,
+					durationSeconds, warmupSeconds, writeRatio);
+			runner.seed(seedCustomers);
+			runner.run(threads, warmupSeconds, false);
+			MemorySampler memorySampler = new MemorySampler(baseUrl, pid);
+			memorySampler.start(Duration.ofSeconds(1));
+			runner.run(threads, durationSeconds, true);
+			memorySampler.stop();
+			runner.report(durationSeconds);
+			System.out.println(memorySampler.report());
+		} finally {
+			runner.httpExecutor.shutdownNow();
+			if (null != context) {
+				context.close();
+			}
+			if (null != mobileValidator) {
+				mobileValidator.stop();
+			}
+		}
+	}
+
+	/**
+	 * Create the customers used by the reads and the updates, the load test cannot pick customers without them
+	 * @param count
+	 * @throws IllegalStateException in case no customer could be created
+	 */
+	private void seed(int count) throws IOException, InterruptedException {
+		String failure = null;
+		for (int i = 0; i < count; i++) {
+			HttpResponse<String> response = createCustomer();
+			if (isError(response)) {
+				failure = response.body();
+			}
+		}
+		if (customerIds.isEmpty()) {
+			throw new IllegalStateException("No customer could be seeded on " + baseUrl + ", the load test is aborted. Last response: " + failure);
+		}
+		if (customerIds.size() < count) {
+			System.out.printf("Only %d of %d customers seeded, last failure: %s%n", customerIds.size(), count, failure);
+		}
+	}
+
+	/**
+	 * Send requests from the passed number of threads during the passed duration
+	 * @param threads
+	 * @param durationSeconds
+	 * @param record true to record the stats
+	 */
+	private void run(int threads, int durationSeconds, boolean record) throws InterruptedException {
+		recording = record;
+		long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(durationSeconds);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		for (int i = 0; i < threads; i++) {
+			executor.execute(() -> {
+				while (System.nanoTime() < end) {
+					try {
+						sendRequest();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						return;
+					} catch (IOException e) {
+						// already recorded as an error
+					}
+				}
+			});
+		}
+		executor.shutdown();
+		executor.awaitTermination(durationSeconds + 60L, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Send a random request, writes are split between creates and updates and reads between the get by id,
+	 * the page, the search by mobile number and the search by name
+	 */
+	private void sendRequest() throws IOException, InterruptedException {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		if (random.nextDouble() < writeRatio) {
+			if (random.nextBoolean()) {
+				createCustomer();
+			} else {
+				long id = randomId(random);
+				String body = customerJson("Load Test " + random.nextInt(1000), "Address " + random.nextInt(1000),
+						mobileNumbers.get(id));
+				send("PUT /customers/{id}", HttpRequest.newBuilder(uri(CUSTOMERS_PATH + "/" + id))
+						.header("Content-Type", "application/json").PUT(HttpRequest.BodyPublishers.ofString(body)).build());
+			}
+			return;
+		}
+		switch (random.nextInt(4)) {
+		case 0:
+			send("GET /customers/page", HttpRequest.newBuilder(uri(CUSTOMERS_PATH + "/page?after=" + randomId(random) + "&limit=50"))
+					.GET().build());
+			break;
+		case 1:
+			send("GET /customers/search/mobile", HttpRequest.newBuilder(uri(CUSTOMERS_PATH + "/search/mobile?mobileNumber="
+					+ mobileNumbers.get(randomId(random)))).GET().build());
+			break;
+		case 2:
+			send("GET /customers/search/name", HttpRequest.newBuilder(uri(CUSTOMERS_PATH + "/search/name?prefix=Load&size=20"))
+					.GET().build());
+			break;
+		default:
+			send("GET /customers/{id}", HttpRequest.newBuilder(uri(CUSTOMERS_PATH + "/" + randomId(random))).GET().build());
+		}
+	}
+
+	private HttpResponse<String> createCustomer() throws IOException, InterruptedException {
+		String mobileNumber = String.format("009617%08d", mobileSequence.incrementAndGet());
+		HttpResponse<String> response = send("POST /customers", HttpRequest.newBuilder(uri(CUSTOMERS_PATH))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(customerJson("Load Test", "Beirut, Lebanon", mobileNumber))).build());
+		JsonNode id = isError(response) ? null : objectMapper.readTree(response.body()).get("id");
+		if (null != id && !id.isNull()) {
+			// the mobile number is added first so it's available as soon as the id can be picked
+			mobileNumbers.put(id.asLong(), mobileNumber);
+			customerIds.add(id.asLong());
+		}
+		return response;
+	}
+
+	/**
+	 * Send the request and record its latency, error responses are returned with status 200 and an ErrorResponse body
+	 * @param endpoint
+	 * @param request
+	 * @return
+	 */
+	private HttpResponse<String> send(String endpoint, HttpRequest request) throws IOException, InterruptedException {
+		long start = System.nanoTime();
+		boolean error = true;
+		try {
+			HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+			error = isError(response);
+			return response;
+		} finally {
+			if (recording) {
+				stats.computeIfAbsent(endpoint, EndpointStats::new).record(System.nanoTime() - start, error);
+			}
+		}
+	}
+
+	/**
+	 * Return true in case the response is an http error or an ErrorResponse body
+	 * @param response
+	 * @return
+	 */
+	private static boolean isError(HttpResponse<String> response) {
+		return response.statusCode() >= 400 || response.body().startsWith("{\"timestamp\"");
+	}
+
+	private void report(int durationSeconds) {
+		System.out.println(EndpointStats.header());
+		List<String> endpoints = new ArrayList<>(stats.keySet());
+		endpoints.sort(null);
+		for (String endpoint : endpoints) {
+			System.out.println(stats.get(endpoint).report(durationSeconds));
+		}
+	}
+
+	private long randomId(ThreadLocalRandom random) {
+		synchronized (customerIds) {
+			return customerIds.get(random.nextInt(customerIds.size()));
+		}
+	}
+
+	private URI uri(String path) {
+		return URI.create(baseUrl + path);
+	}
+
+	private String customerJson(String name, String address, String mobileNumber) {
+		return objectMapper.createObjectNode().put("name", name).put("address", address).put("mobileNumber", mobileNumber).toString();
+	}
+
+}
@@ -0,0 +1,143 @@
+package com.areeba.challenge.customer.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Sample the memory of the load tested service while the stats are recorded, so the MVC and the reactive services can be compared
+ * under the same traffic. The used heap is read from the actuator jvm.memory.used metric, exposed by both services, and the resident
+ * set size from /proc/{pid}/status of the service process when its pid is known (linux only)
+ * 
+ * @author Hussein Zaraket
+ */
+public class MemorySampler {
+
+	private static final String HEAP_USED_PATH = "/actuator/metrics/jvm.memory.used?tag=area:heap";
+
+	private static final double MEGABYTE = 1024 * 1024;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+	private final String baseUrl;
+
+	// pid of the service process, 0 in case it is unknown and the resident set size is not sampled
+	private final long pid;
+
+	private final Sample heapUsed = new Sample();
+
+	private final Sample residentSetSize = new Sample();
+
+	public MemorySampler(String baseUrl, long pid) {
+		this.baseUrl = baseUrl;
+		this.pid = pid;
+	}
+
+	/**
+	 * Sample the memory every passed period until stopped
+	 * @param period
+	 */
+	public void start(Duration period) {
+		scheduler.scheduleAtFixedRate(this::sample, 0, period.toMillis(), TimeUnit.MILLISECONDS);
+	}
+
+	public void stop() throws InterruptedException {
+		scheduler.shutdown();
+		scheduler.awaitTermination(10, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Return the lines of the report with the average and the maximum sampled memory in megabytes
+	 * @return
+	 */
+	public String report() {
+		return String.format("%-28s %8s %10s %10s%n", "memory", "samples", "avg MB", "max MB")
+				+ heapUsed.report("heap used") + System.lineSeparator() + residentSetSize.report("resident set size");
+	}
+
+	private void sample() {
+		try {
+			HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(URI.create(baseUrl + HEAP_USED_PATH)).GET().build(),
+					HttpResponse.BodyHandlers.ofString());
+			if (response.statusCode() == 200) {
+				JsonNode measurements = objectMapper.readTree(response.body()).get("measurements");
+				heapUsed.add(measurements.get(0).get("value").asDouble());
+			}
+		} catch (IOException e) {
+			// the sample is missing from the report
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
+		}
+		if (pid > 0) {
+			residentSetSize.add(readResidentSetSize());
+		}
+	}
+
+	/**
+	 * Return the resident set size of the service process in bytes, -1 in case it cannot be read
+	 * @return
+	 */
+	private double readResidentSetSize() {
+		Path status = Paths.get("/proc", Long.toString(pid), "status");
+		try {
+			List<String> lines = Files.readAllLines(status);
+			for (String line : lines) {
+				// formatted as "VmRSS:	  123456 kB"
+				if (line.startsWith("VmRSS:")) {
+					return Long.parseLong(line.substring("VmRSS:".length()).replace("kB", "").trim()) * 1024d;
+				}
+			}
+		} catch (IOException | NumberFormatException e) {
+			// not a linux process
+		}
+		return -1;
+	}
+
+	/**
+	 * Average and maximum of the samples of one memory area
+	 */
+	private static class Sample {
+
+		private int count;
+
+		private double total;
+
+		private double max;
+
+		synchronized void add(double bytes) {
+			if (bytes < 0) {
+				return;
+			}
+			count++;
+			total += bytes;
+			max = Math.max(max, bytes);
+		}
+
+		synchronized String report(String name) {
+			if (count == 0) {
+				return String.format("%-28s %8d %10s %10s", name, count, "n/a", "n/a");
+			}
+			return String.format("%-28s %8d %10.1f %10.1f", name, count, total / count / MEGABYTE, max / MEGABYTE);
+		}
+
+	}
+
+}
@@ -0,0 +1,50 @@
+package com.areeba.challenge.customer.stub;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.areeba.challenge.customer.CustomerMsApplication;
+
+/**
+ * Start the customer service against an in-memory H2 database in PostgreSQL mode and the passed mobile validator,
+ * so it can be benchmarked or load tested without any external dependency
+ * 
+ * @author Hussein Zaraket
+ */
+public final class EmbeddedCustomerApplication {
+
+	private EmbeddedCustomerApplication() {
+
+	}
+
+	/**
+	 * Start the customer service and return its context, the passed properties override the default ones
+	 * @param mobileValidator
+	 * @param properties additional properties as key=value
+	 * @return
+	 */
+	public static ConfigurableApplicationContext start(StubMobileValidator mobileValidator, String... properties) {
+		List<String> allProperties = new ArrayList<>(Arrays.asList(
+				"spring.datasource.url=jdbc:h2:mem:customer;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+				"spring.datasource.username=sa",
+				"spring.datasource.password=",
+				"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+				// the migrations are written for postgres, the schema is created from the entities instead
+				"spring.flyway.enabled=false",
+				"spring.jpa.hibernate.ddl-auto=create-drop",
+				// the relay locks the outbox with postgres only syntax
+				"customer.outbox.relay.enabled=false",
+				"mobileValidator.url=" + mobileValidator.getUrl()));
+		allProperties.addAll(Arrays.asList(properties));
+		// passed as command line arguments, the default properties of the builder are overridden by application.properties
+		String[] args = allProperties.stream().map(property -> "--" + property).toArray(String[]::new);
+		// devtools would restart the service in its own thread, leaving the caller without context and the stub running
+		System.setProperty("spring.devtools.restart.enabled", "false");
+		return new SpringApplicationBuilder(CustomerMsApplication.class).run(args);
+	}
+
+}
@@ -0,0 +1,87 @@
+package com.areeba.challenge.customer.stub;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * In-process stub of the mobile validator API, a mobile number is valid when it's made of 8 to 15 digits.
+ * Every response is delayed by the configured latency to simulate the real validator
+ * 
+ * @author Hussein Zaraket
+ */
+public class StubMobileValidator {
+
+	// path of the mobile details API, as called by MobileNumberService
+	private static final String MOBILE_DETAILS_PATH = "/api/mobile-service/mobileDetails/";
+
+	// mobile numbers accepted by the stub
+	private static final Pattern VALID_MOBILE = Pattern.compile("\\+?[0-9]{8,15}");
+
+	private final HttpServer server;
+
+	private final ExecutorService executor;
+
+	// delay of every response in milliseconds
+	private final long latencyMillis;
+
+	// number of requests received
+	private final AtomicInteger requestCount = new AtomicInteger();
+
+	public StubMobileValidator(long latencyMillis) throws IOException {
+		this.latencyMillis = latencyMillis;
+		this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		this.executor = Executors.newCachedThreadPool();
+		server.setExecutor(executor);
+		server.createContext(MOBILE_DETAILS_PATH, exchange -> {
+			requestCount.incrementAndGet();
+			String mobile = exchange.getRequestURI().getPath().substring(MOBILE_DETAILS_PATH.length());
+			if (latencyMillis > 0) {
+				try {
+					Thread.sleep(latencyMillis);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			byte[] body = ("{\"valid\":" + VALID_MOBILE.matcher(mobile).matches() + "}").getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().set("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		});
+		server.start();
+	}
+
+	/**
+	 * Return the url of the stub to be used as mobileValidator.url
+	 * @return
+	 */
+	public String getUrl() {
+		return "http://localhost:" + server.getAddress().getPort() + MOBILE_DETAILS_PATH + "{0}";
+	}
+
+	public long getLatencyMillis() {
+		return latencyMillis;
+	}
+
+	public int getRequestCount() {
+		return requestCount.get();
+	}
+
+	/**
+	 * Stop the stub and release its threads
+	 */
+	public void stop() {
+		server.stop(0);
+		executor.shutdownNow();
+	}
+
+}